@@ -41,7 +41,7 @@ export default function () {
   const startTime = Date.now();
   const testId = `rest-100tps-${__VU}-${__ITER}`;
   
-  const url = 'http://rest-grpc-service:8080/camel/api/payload';
+  const url = __ENV.REST_URL || 'http://rest-grpc-service:8080/camel/api/payload';
   const payload = JSON.stringify({
     id: testId,
     name: 'Load Test User',
@@ -29,7 +29,7 @@ export default function () {
   const startTime = Date.now();
   const testId = `rest-20tps-${__VU}-${__ITER}-${startTime}`;
 
-  const url = 'http://rest-grpc-service.default.svc.cluster.local:8080/camel/api/payload';
+  const url = __ENV.REST_URL || 'http://rest-grpc-service.default.svc.cluster.local:8080/camel/api/payload';
   const payload = JSON.stringify({
     id: testId,
     content: `REST load test message ${__ITER}`,
@@ -11,7 +11,7 @@ export let options = {
 };
 
 export default function () {
-  const url = 'http://localhost:8081/camel/api/payload';
+  const url = __ENV.REST_URL || 'http://localhost:8081/camel/api/payload';
   const payload = JSON.stringify({
     id: `test-${__VU}-${__ITER}`,
     name: 'John Doe',
@@ -31,7 +31,7 @@ export default () => {
     timeout: '30s',
   };
 
-  const response = http.post('http://rest-grpc-service:8080/api/payload', JSON.stringify(payload), params);
+  const response = http.post(__ENV.REST_URL || 'http://rest-grpc-service:8080/api/payload', JSON.stringify(payload), params);
   
   check(response, {
     'status was 200': (r) => r.status === 200,
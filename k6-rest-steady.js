@@ -19,7 +19,7 @@ export let options = {
 };
 
 export default function () {
-  const url = 'http://rest-grpc-service:8080/camel/api/payload';
+  const url = __ENV.REST_URL || 'http://rest-grpc-service:8080/camel/api/payload';
   const payload = JSON.stringify({
     id: `rest-steady-${__VU}-${__ITER}`,
     name: 'John Doe',
@@ -3,8 +3,24 @@ package com.benchmark.client.config;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.Http2AllocationStrategy;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
+/**
+ * WebClients for the REST target. {@code webClient} speaks the HTTP version selected by
+ * {@code rest.client.http-version}: {@code http1}, {@code h2c} (prior knowledge) or
+ * {@code h2c-upgrade} (HTTP/1.1 upgrade). {@code h2cWebClient} always uses prior-knowledge
+ * h2c and backs the REST_H2C benchmark variant.
+ * <p>HTTP/2 clients multiplex up to {@code rest.client.h2c.max-concurrent-streams} streams on
+ * each of at most {@code rest.client.h2c.max-connections} connections; Reactor Netty
+ * publishes {@code reactor.netty.connection.provider.*} metrics (active connections,
+ * active and pending streams) for their pools.
+ */
 @Configuration
 public class RestClientConfig {
 
@@ -14,10 +30,48 @@ public class RestClientConfig {
     @Value("${rest.server.port:8080}")
     private int restServerPort;
 
+    @Value("${rest.client.http-version:http1}")
+    private String httpVersion;
+
+    @Value("${rest.client.h2c.max-connections:1}")
+    private int h2cMaxConnections;
+
+    @Value("${rest.client.h2c.max-concurrent-streams:100}")
+    private long h2cMaxConcurrentStreams;
+
     @Bean
+    @Primary
     public WebClient webClient() {
+        return switch (httpVersion) {
+            case "h2c" -> http2WebClient("rest-h2c", HttpProtocol.H2C);
+            case "h2c-upgrade" -> http2WebClient("rest-h2c-upgrade", HttpProtocol.HTTP11, HttpProtocol.H2C);
+            default -> WebClient.builder()
+                    .baseUrl(baseUrl())
+                    .build();
+        };
+    }
+
+    @Bean
+    public WebClient h2cWebClient() {
+        return http2WebClient("rest-h2c-variant", HttpProtocol.H2C);
+    }
+
+    private WebClient http2WebClient(String poolName, HttpProtocol... protocols) {
+        ConnectionProvider provider = ConnectionProvider.builder(poolName)
+                .allocationStrategy(Http2AllocationStrategy.builder()
+                        .maxConnections(h2cMaxConnections)
+                        .maxConcurrentStreams(h2cMaxConcurrentStreams)
+                        .build())
+                .metrics(true)
+                .build();
+        HttpClient httpClient = HttpClient.create(provider).protocol(protocols);
         return WebClient.builder()
-                .baseUrl("http://" + restServerHost + ":" + restServerPort)
+                .baseUrl(baseUrl())
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
                 .build();
     }
-} 
\ No newline at end of file
+
+    private String baseUrl() {
+        return "http://" + restServerHost + ":" + restServerPort;
+    }
+}
@@ -54,6 +54,19 @@ public class BenchmarkController {
 
 
 
+    @PostMapping("/bulk")
+    public ResponseEntity<Map<String, BenchmarkResult>> runBulkBenchmark(@RequestBody PayloadRequest[] requests) {
+        logger.info("Running bulk benchmark with {} payloads", requests.length);
+
+        try {
+            Map<String, BenchmarkResult> results = benchmarkService.runBulkComparison(requests);
+            return ResponseEntity.ok(results);
+        } catch (Exception e) {
+            logger.error("Error running bulk benchmark", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
     @PostMapping("/rest")
     public ResponseEntity<PayloadResponse> testRest(@RequestBody PayloadRequest request) {
         logger.info("Testing REST endpoint with request: {}", request);
@@ -69,6 +82,36 @@ public class BenchmarkController {
         }
     }
 
+    @PostMapping("/rest/protobuf")
+    public ResponseEntity<PayloadResponse> testRestProtobuf(@RequestBody PayloadRequest request) {
+        logger.info("Testing REST endpoint with protobuf bodies, request: {}", request);
+
+        try {
+            PayloadResponse response = restClientService.sendPayload(request, RestClientService.Encoding.PROTOBUF);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            logger.error("Error testing REST protobuf endpoint", e);
+            return ResponseEntity.internalServerError().body(
+                new PayloadResponse("error", "REST protobuf test failed: " + e.getMessage())
+            );
+        }
+    }
+
+    @PostMapping("/rest/h2c")
+    public ResponseEntity<PayloadResponse> testRestH2c(@RequestBody PayloadRequest request) {
+        logger.info("Testing REST endpoint over h2c with request: {}", request);
+
+        try {
+            PayloadResponse response = restClientService.sendPayloadH2c(request, RestClientService.Encoding.JSON);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            logger.error("Error testing REST h2c endpoint", e);
+            return ResponseEntity.internalServerError().body(
+                new PayloadResponse("error", "REST h2c test failed: " + e.getMessage())
+            );
+        }
+    }
+
     @PostMapping("/grpc/unary")
     public ResponseEntity<PayloadResponse> testGrpcUnary(@RequestBody PayloadRequest request) {
         logger.info("Testing gRPC unary endpoint with request: {}", request);
@@ -99,6 +142,21 @@ public class BenchmarkController {
         }
     }
 
+    @PostMapping("/grpc/batch")
+    public ResponseEntity<PayloadResponse> testGrpcBatch(@RequestBody PayloadRequest[] requests) {
+        logger.info("Testing gRPC batch endpoint with {} payloads", requests.length);
+        
+        try {
+            PayloadResponse response = grpcClientService.sendPayloadBatch(requests);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            logger.error("Error testing gRPC batch endpoint", e);
+            return ResponseEntity.internalServerError().body(
+                new PayloadResponse("error", "gRPC batch test failed: " + e.getMessage())
+            );
+        }
+    }
+
     @GetMapping("/health/rest")
     public ResponseEntity<String> testRestHealth() {
         try {
@@ -10,6 +10,7 @@ import org.springframework.stereotype.Service;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class BenchmarkService {
@@ -41,6 +42,36 @@ public class BenchmarkService {
             restStart,
             restEnd
         ));
+
+        // Test REST with protobuf bodies (same transport as REST, same encoding as gRPC)
+        long restProtoStart = System.currentTimeMillis();
+        PayloadResponse restProtoResponse = restClientService.sendPayload(request, RestClientService.Encoding.PROTOBUF);
+        long restProtoEnd = System.currentTimeMillis();
+        long restProtoDuration = restProtoEnd - restProtoStart;
+
+        results.put("REST_Protobuf", new BenchmarkResult(
+            "REST_Protobuf",
+            restProtoDuration,
+            restProtoResponse.getStatus(),
+            restProtoResponse.getMessage(),
+            restProtoStart,
+            restProtoEnd
+        ));
+
+        // Test REST over HTTP/2 cleartext (JSON bodies)
+        long restH2cStart = System.currentTimeMillis();
+        PayloadResponse restH2cResponse = restClientService.sendPayloadH2c(request, RestClientService.Encoding.JSON);
+        long restH2cEnd = System.currentTimeMillis();
+        long restH2cDuration = restH2cEnd - restH2cStart;
+
+        results.put("REST_H2C", new BenchmarkResult(
+            "REST_H2C",
+            restH2cDuration,
+            restH2cResponse.getStatus(),
+            restH2cResponse.getMessage(),
+            restH2cStart,
+            restH2cEnd
+        ));
         
         // Test gRPC Unary
         long grpcUnaryStart = System.currentTimeMillis();
@@ -72,11 +103,120 @@ public class BenchmarkService {
             grpcStreamEnd
         ));
         
-        logger.info("Single call comparison completed. REST: {}ms, gRPC Unary: {}ms, gRPC Streaming: {}ms", 
-                   restDuration, grpcUnaryDuration, grpcStreamDuration);
+        // Test gRPC Batch (a batch of one)
+        long grpcBatchStart = System.currentTimeMillis();
+        PayloadResponse grpcBatchResponse = grpcClientService.sendPayloadBatch(new PayloadRequest[] { request });
+        long grpcBatchEnd = System.currentTimeMillis();
+        long grpcBatchDuration = grpcBatchEnd - grpcBatchStart;
+
+        results.put("gRPC_Batch", new BenchmarkResult(
+            "gRPC_Batch",
+            grpcBatchDuration,
+            grpcBatchResponse.getStatus(),
+            grpcBatchResponse.getMessage(),
+            grpcBatchStart,
+            grpcBatchEnd
+        ));
+        
+        logger.info("Single call comparison completed. REST: {}ms, REST Protobuf: {}ms, REST h2c: {}ms, gRPC Unary: {}ms, gRPC Streaming: {}ms, gRPC Batch: {}ms", 
+                   restDuration, restProtoDuration, restH2cDuration, grpcUnaryDuration, grpcStreamDuration, grpcBatchDuration);
         
         return results;
     }
 
+    /**
+     * Sends the same set of payloads as N REST calls (JSON, protobuf and JSON over h2c), N unary calls,
+     * one stream and one batch call, so the per-payload cost of each mode can be compared.
+     */
+    public Map<String, BenchmarkResult> runBulkComparison(PayloadRequest[] requests) {
+        logger.info("Running bulk comparison for {} payloads", requests.length);
+
+        Map<String, BenchmarkResult> results = new HashMap<>();
+
+        long restStart = System.currentTimeMillis();
+        int restFailures = 0;
+        for (PayloadRequest request : requests) {
+            if (!"success".equals(restClientService.sendPayload(request).getStatus())) {
+                restFailures++;
+            }
+        }
+        long restEnd = System.currentTimeMillis();
+        results.put("REST", bulkResult("REST", requests.length, restFailures, restStart, restEnd));
+
+        long restProtoStart = System.currentTimeMillis();
+        int restProtoFailures = 0;
+        for (PayloadRequest request : requests) {
+            if (!"success".equals(restClientService.sendPayload(request, RestClientService.Encoding.PROTOBUF).getStatus())) {
+                restProtoFailures++;
+            }
+        }
+        long restProtoEnd = System.currentTimeMillis();
+        results.put("REST_Protobuf", bulkResult("REST_Protobuf", requests.length, restProtoFailures, restProtoStart, restProtoEnd));
+
+        long restH2cStart = System.currentTimeMillis();
+        int restH2cFailures = 0;
+        for (PayloadRequest request : requests) {
+            if (!"success".equals(restClientService.sendPayloadH2c(request, RestClientService.Encoding.JSON).getStatus())) {
+                restH2cFailures++;
+            }
+        }
+        long restH2cEnd = System.currentTimeMillis();
+        results.put("REST_H2C", bulkResult("REST_H2C", requests.length, restH2cFailures, restH2cStart, restH2cEnd));
+
+        long unaryStart = System.currentTimeMillis();
+        int unaryFailures = 0;
+        for (PayloadRequest request : requests) {
+            if (!"success".equals(grpcClientService.sendPayloadUnary(request).getStatus())) {
+                unaryFailures++;
+            }
+        }
+        long unaryEnd = System.currentTimeMillis();
+        results.put("gRPC_Unary", bulkResult("gRPC_Unary", requests.length, unaryFailures, unaryStart, unaryEnd));
+
+        long streamStart = System.currentTimeMillis();
+        PayloadResponse streamResponse;
+        try {
+            streamResponse = grpcClientService.sendMultiplePayloadsStreaming(requests).get(60, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            streamResponse = new PayloadResponse("error", "gRPC streaming call failed: " + e.getMessage());
+        }
+        long streamEnd = System.currentTimeMillis();
+        results.put("gRPC_Streaming", new BenchmarkResult(
+            "gRPC_Streaming",
+            streamEnd - streamStart,
+            streamResponse == null ? "error" : streamResponse.getStatus(),
+            requests.length + " payloads on one stream",
+            streamStart,
+            streamEnd
+        ));
+
+        long batchStart = System.currentTimeMillis();
+        PayloadResponse batchResponse = grpcClientService.sendPayloadBatch(requests);
+        long batchEnd = System.currentTimeMillis();
+        results.put("gRPC_Batch", new BenchmarkResult(
+            "gRPC_Batch",
+            batchEnd - batchStart,
+            batchResponse.getStatus(),
+            batchResponse.getMessage(),
+            batchStart,
+            batchEnd
+        ));
+
+        logger.info("Bulk comparison completed for {} payloads. REST: {}ms, REST Protobuf: {}ms, REST h2c: {}ms, gRPC Unary: {}ms, gRPC Streaming: {}ms, gRPC Batch: {}ms",
+                   requests.length, restEnd - restStart, restProtoEnd - restProtoStart, restH2cEnd - restH2cStart, unaryEnd - unaryStart, streamEnd - streamStart, batchEnd - batchStart);
+
+        return results;
+    }
+
+    private BenchmarkResult bulkResult(String protocol, int count, int failures, long start, long end) {
+        return new BenchmarkResult(
+            protocol,
+            end - start,
+            failures == 0 ? "success" : "partial",
+            count + " payloads, " + failures + " failed",
+            start,
+            end
+        );
+    }
 
 } 
\ No newline at end of file
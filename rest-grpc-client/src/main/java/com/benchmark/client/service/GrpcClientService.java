@@ -3,6 +3,8 @@ package com.benchmark.client.service;
 import com.benchmark.client.dto.PayloadRequest;
 import com.benchmark.client.dto.PayloadResponse;
 import com.benchmark.service.grpc.InputPayload;
+import com.benchmark.service.grpc.InputPayloadBatch;
+import com.benchmark.service.grpc.PayloadBatchResponse;
 import com.benchmark.service.grpc.PayloadServiceGrpc;
 import io.grpc.stub.StreamObserver;
 import org.slf4j.Logger;
@@ -114,6 +116,33 @@ public class GrpcClientService {
         }
     }
 
+    public PayloadResponse sendPayloadBatch(PayloadRequest[] requests) {
+        logger.info("Sending gRPC batch of {} payloads", requests.length);
+
+        try {
+            InputPayloadBatch.Builder batch = InputPayloadBatch.newBuilder();
+            for (PayloadRequest request : requests) {
+                batch.addPayloads(InputPayload.newBuilder()
+                        .setId(request.getId())
+                        .setContent(request.getContent())
+                        .setTimestamp(request.getTimestamp())
+                        .setProtocol("gRPC")
+                        .build());
+            }
+
+            PayloadBatchResponse grpcResponse = blockingStub.sendPayloadBatch(batch.build());
+
+            String status = grpcResponse.getFailureCount() == 0 ? "success" : "partial";
+            PayloadResponse response = new PayloadResponse(status, "Batch processed: "
+                    + grpcResponse.getSuccessCount() + " succeeded, " + grpcResponse.getFailureCount() + " failed");
+            logger.info("Received gRPC batch response: {}", response);
+            return response;
+        } catch (Exception e) {
+            logger.error("Error sending gRPC batch", e);
+            return new PayloadResponse("error", "gRPC batch call failed: " + e.getMessage());
+        }
+    }
+
     public CompletableFuture<PayloadResponse> sendMultiplePayloadsStreaming(PayloadRequest[] requests) {
         logger.info("Sending {} gRPC streaming payloads", requests.length);
         
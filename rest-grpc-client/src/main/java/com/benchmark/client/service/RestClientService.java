@@ -2,9 +2,13 @@ package com.benchmark.client.service;
 
 import com.benchmark.client.dto.PayloadRequest;
 import com.benchmark.client.dto.PayloadResponse;
+import com.benchmark.service.grpc.InputPayload;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
@@ -16,14 +20,50 @@ public class RestClientService {
 
     private static final Logger logger = LoggerFactory.getLogger(RestClientService.class);
 
+    public static final MediaType PROTOBUF = MediaType.parseMediaType("application/x-protobuf");
+
+    /**
+     * Body encoding for REST calls. PROTOBUF sends and accepts the generated gRPC messages
+     * over the same endpoint, separating the encoding from the transport.
+     */
+    public enum Encoding { JSON, PROTOBUF }
+
     @Autowired
     private WebClient webClient;
 
+    @Autowired
+    @Qualifier("h2cWebClient")
+    private WebClient h2cWebClient;
+
+    @Value("${rest.client.encoding:json}")
+    private Encoding encoding;
+
     public PayloadResponse sendPayload(PayloadRequest request) {
+        return sendPayload(request, encoding);
+    }
+
+    public PayloadResponse sendPayload(PayloadRequest request, Encoding encoding) {
+        if (encoding == Encoding.PROTOBUF) {
+            return sendPayloadProtobuf(webClient, request);
+        }
+        return sendPayloadJson(webClient, request);
+    }
+
+    /**
+     * Sends over prior-knowledge h2c (REST_H2C variant), multiplexed on the shared HTTP/2 pool.
+     */
+    public PayloadResponse sendPayloadH2c(PayloadRequest request, Encoding encoding) {
+        if (encoding == Encoding.PROTOBUF) {
+            return sendPayloadProtobuf(h2cWebClient, request);
+        }
+        return sendPayloadJson(h2cWebClient, request);
+    }
+
+    private PayloadResponse sendPayloadJson(WebClient client, PayloadRequest request) {
         logger.info("Sending REST payload: {}", request);
         
         try {
-            PayloadResponse response = webClient
+            PayloadResponse response = client
                     .post()
                     .uri("/camel/api/payload")
                     .body(Mono.just(request), PayloadRequest.class)
@@ -40,6 +80,37 @@ public class RestClientService {
         }
     }
 
+    private PayloadResponse sendPayloadProtobuf(WebClient client, PayloadRequest request) {
+        logger.info("Sending REST protobuf payload: {}", request);
+
+        try {
+            InputPayload protoRequest = InputPayload.newBuilder()
+                    .setId(request.getId())
+                    .setContent(request.getContent())
+                    .setTimestamp(request.getTimestamp())
+                    .setProtocol("REST")
+                    .build();
+
+            com.benchmark.service.grpc.PayloadResponse protoResponse = client
+                    .post()
+                    .uri("/camel/api/payload")
+                    .contentType(PROTOBUF)
+                    .accept(PROTOBUF)
+                    .bodyValue(protoRequest)
+                    .retrieve()
+                    .bodyToMono(com.benchmark.service.grpc.PayloadResponse.class)
+                    .timeout(Duration.ofSeconds(30))
+                    .block();
+
+            PayloadResponse response = new PayloadResponse(protoResponse.getStatus(), protoResponse.getMessage());
+            logger.info("Received REST protobuf response: {}", response);
+            return response;
+        } catch (Exception e) {
+            logger.error("Error sending REST protobuf payload", e);
+            return new PayloadResponse("error", "REST protobuf call failed: " + e.getMessage());
+        }
+    }
+
     public String healthCheck() {
         try {
             String response = webClient
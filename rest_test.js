@@ -7,7 +7,7 @@ export let options = {
 };
 
 export default function () {
-  const url = 'http://localhost:8080/api/payload';
+  const url = __ENV.REST_URL || 'http://localhost:8080/api/payload';
   const payload = JSON.stringify({
     id: '123',
     name: 'Alice',
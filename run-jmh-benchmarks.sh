@@ -0,0 +1,12 @@
+#!/bin/bash
+
+# Runs the JMH microbenchmarks under src/jmh/java
+# Usage: ./run-jmh-benchmarks.sh [benchmark-regex] [extra JMH args...]
+set -e
+
+PATTERN="${1:-.*}"
+shift || true
+EXTRA_ARGS="$*"
+
+echo "🔬 Running JMH benchmarks matching: ${PATTERN}"
+mvn -B -q -Pjmh test-compile exec:exec -Djmh.args="${PATTERN} -prof gc ${EXTRA_ARGS}"
@@ -0,0 +1,145 @@
+#!/bin/bash
+
+# Startup-time benchmark: time from JVM launch to the first successful POST /camel/api/payload
+# Variants:
+#   standard      fat jar, eager initialisation (mvn package)
+#   aot-lazy      Spring AOT (mvn -Pfast-startup), lazy initialisation, exploded class path
+#   fast-startup  aot-lazy plus the AppCDS archive (what Dockerfile.fast-startup runs)
+# Needs the Spanner emulator and Kafka from docker-compose (localhost:9010 / localhost:9092).
+# Usage: ./run-startup-benchmark.sh [runs-per-variant] [variant...]
+set -e
+
+RUNS="${1:-5}"
+shift || true
+VARIANTS="${*:-standard aot-lazy fast-startup}"
+BASE_URL="http://localhost:8080"
+TIMEOUT_SECONDS=180
+WORK_DIR="target/startup-benchmark"
+RESULTS_FILE="startup-benchmark-results.csv"
+JAVA_OPTS="${JAVA_OPTS:--Xmx512m -Xms256m -XX:+UseG1GC -XX:+UseStringDeduplication}"
+# AOT freezes the emulator switch, so the emulator comes from a profile used for AOT processing and at runtime
+PROFILES="emulator"
+APP_OPTS="-Dspring.profiles.active=${PROFILES}"
+MAIN_CLASS="com.benchmark.service.Application"
+AOT_CLASSPATH="${WORK_DIR}/aot/BOOT-INF/classes:${WORK_DIR}/aot/BOOT-INF/lib/*"
+CDS_ARCHIVE="${WORK_DIR}/app.jsa"
+
+now_ms() {
+    date +%s%3N
+}
+
+build() {
+    rm -rf "${WORK_DIR}"
+    mkdir -p "${WORK_DIR}"
+
+    echo "🔨 Building standard jar"
+    mvn -B -q clean package -DskipTests
+    cp target/rest-grpc-camel-service-*.jar "${WORK_DIR}/standard.jar"
+
+    # No clean: it would delete the standard jar copied above
+    echo "🔨 Building AOT-processed jar (AOT evaluated with profiles: ${PROFILES})"
+    mvn -B -q package -Pfast-startup -Daot.profiles=${PROFILES} -DskipTests
+    mkdir -p "${WORK_DIR}/aot"
+    (cd "${WORK_DIR}/aot" && jar -xf ../../rest-grpc-camel-service-*.jar)
+
+    # Same JVM options and settings as the fast-startup variant, so the archive covers what it loads
+    echo "🔨 Training run for the CDS archive"
+    java ${JAVA_OPTS} ${APP_OPTS} -XX:ArchiveClassesAtExit="${CDS_ARCHIVE}" -Dspring.context.exit=onRefresh \
+        -Dspring.aot.enabled=true -Dspring.main.lazy-initialization=true \
+        -cp "${AOT_CLASSPATH}" ${MAIN_CLASS} > "${WORK_DIR}/training.log" 2>&1
+}
+
+start_variant() {
+    local variant="$1"
+    local log="$2"
+    case "${variant}" in
+        standard)
+            java ${JAVA_OPTS} ${APP_OPTS} -jar "${WORK_DIR}/standard.jar" > "${log}" 2>&1 &
+            ;;
+        aot-lazy)
+            java ${JAVA_OPTS} ${APP_OPTS} -Dspring.aot.enabled=true -Dspring.main.lazy-initialization=true \
+                -cp "${AOT_CLASSPATH}" ${MAIN_CLASS} > "${log}" 2>&1 &
+            ;;
+        fast-startup)
+            java ${JAVA_OPTS} ${APP_OPTS} -XX:SharedArchiveFile="${CDS_ARCHIVE}" \
+                -Dspring.aot.enabled=true -Dspring.main.lazy-initialization=true \
+                -cp "${AOT_CLASSPATH}" ${MAIN_CLASS} > "${log}" 2>&1 &
+            ;;
+        *)
+            echo "Unknown variant: ${variant}" >&2
+            exit 1
+            ;;
+    esac
+    APP_PID=$!
+}
+
+# Polls until the first payload is accepted; records readiness on the way
+measure_run() {
+    local variant="$1"
+    local run="$2"
+    local log="${WORK_DIR}/${variant}-${run}.log"
+    local start first_success="" ready="" deadline
+
+    start=$(now_ms)
+    start_variant "${variant}" "${log}"
+    deadline=$((start + TIMEOUT_SECONDS * 1000))
+
+    while [ -z "${first_success}" ] || [ -z "${ready}" ]; do
+        if [ "$(now_ms)" -gt "${deadline}" ] || ! kill -0 "${APP_PID}" 2>/dev/null; then
+            break
+        fi
+        if [ -z "${first_success}" ]; then
+            response=$(curl -s -m 5 -X POST "${BASE_URL}/camel/api/payload" \
+                -H "Content-Type: application/json" \
+                -d "{\"id\":\"startup-${variant}-${run}-$(now_ms)\",\"content\":\"Startup benchmark payload\",\"timestamp\":\"$(date -u +%Y-%m-%dT%H:%M:%SZ)\",\"protocol\":\"REST\"}" \
+                2>/dev/null || true)
+            if echo "${response}" | grep -q '"success"'; then
+                first_success=$(( $(now_ms) - start ))
+            fi
+        fi
+        if [ -z "${ready}" ] && curl -sf -m 2 "${BASE_URL}/actuator/health/readiness" > /dev/null 2>&1; then
+            ready=$(( $(now_ms) - start ))
+        fi
+        sleep 0.05
+    done
+
+    # Spring's own figure: "Started Application in X seconds"
+    started=$(grep -o 'Started Application in [0-9.]* seconds' "${log}" | grep -o '[0-9.]*' | head -1)
+
+    kill "${APP_PID}" 2>/dev/null || true
+    wait "${APP_PID}" 2>/dev/null || true
+
+    echo "${variant},${run},${started:-n/a},${ready:-timeout},${first_success:-timeout}" >> "${RESULTS_FILE}"
+    printf "  run %-3s started=%-8s ready_ms=%-8s first_success_ms=%s\n" \
+        "${run}" "${started:-n/a}s" "${ready:-timeout}" "${first_success:-timeout}"
+}
+
+summarise() {
+    local variant="$1"
+    grep "^${variant}," "${RESULTS_FILE}" | cut -d, -f5 | grep -v timeout | sort -n | awk -v v="${variant}" '
+        { values[NR] = $1; sum += $1 }
+        END {
+            if (NR == 0) { printf "%-14s no successful runs\n", v; exit }
+            median = (NR % 2) ? values[(NR + 1) / 2] : (values[NR / 2] + values[NR / 2 + 1]) / 2
+            printf "%-14s runs=%-3d min=%-7d median=%-9.0f mean=%-9.0f max=%d (ms to first successful request)\n",
+                v, NR, values[1], median, sum / NR, values[NR]
+        }'
+}
+
+echo "🚀 Startup benchmark: ${RUNS} runs each of: ${VARIANTS}"
+build
+
+echo "variant,run,spring_started_seconds,ready_ms,first_success_ms" > "${RESULTS_FILE}"
+for variant in ${VARIANTS}; do
+    echo "⏱️  ${variant}"
+    for run in $(seq 1 "${RUNS}"); do
+        measure_run "${variant}" "${run}"
+    done
+done
+
+echo ""
+echo "📊 Time to first successful request"
+for variant in ${VARIANTS}; do
+    summarise "${variant}"
+done
+echo "Raw results: ${RESULTS_FILE}, application logs: ${WORK_DIR}"
@@ -0,0 +1,107 @@
+package com.benchmark.service.bench;
+
+import com.benchmark.service.dto.OutgoingMqMessage;
+import com.benchmark.service.entity.InputPayloadEntity;
+import com.benchmark.service.grpc.InputPayload;
+import com.benchmark.service.util.CorrelationIds;
+import com.benchmark.service.util.PayloadMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request mapping cost of the ingest path: {@code before} reproduces the previous
+ * proto -> DTO -> entity copy with {@link UUID#randomUUID()}, per-call topic concatenation
+ * and several clock reads; {@code lean} is the current {@link PayloadMapper} path. Run with
+ * {@code -prof gc} and compare {@code gc.alloc.rate.norm} (bytes/op). Runs on 4 threads
+ * so contention on the shared SecureRandom shows up in the time per op.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class IngestMappingBenchmark {
+
+    private static final String PROTOCOL = "gRPC-Unary";
+
+    private InputPayload request;
+
+    @Setup
+    public void setup() {
+        request = InputPayload.newBuilder()
+                .setId("user-12345")
+                .setContent("Benchmark payload content")
+                .setTimestamp(Instant.now().toString())
+                .setProtocol(PROTOCOL)
+                .build();
+    }
+
+    @Benchmark
+    public void before(Blackhole bh) {
+        com.benchmark.service.dto.InputPayload payload = new com.benchmark.service.dto.InputPayload();
+        payload.setId(request.getId());
+        payload.setContent(request.getContent());
+        payload.setTimestamp(request.getTimestamp());
+        payload.setProtocol(request.getProtocol());
+
+        String correlationId = UUID.randomUUID().toString();
+        Instant startTime = Instant.now();
+
+        InputPayloadEntity entity = new InputPayloadEntity();
+        entity.setId(payload.getId());
+        entity.setContent(payload.getContent());
+        entity.setTimestamp(Instant.parse(payload.getTimestamp()));
+        entity.setProtocol(PROTOCOL);
+
+        OutgoingMqMessage mqMsg = new OutgoingMqMessage();
+        mqMsg.setUserId(payload.getId());
+        mqMsg.setUserName(payload.getContent());
+        mqMsg.setNotificationType("NEW_PAYLOAD");
+        mqMsg.setCorrelationId(correlationId);
+        mqMsg.setProtocol(PROTOCOL);
+        mqMsg.setProcessingStartTime(startTime.toEpochMilli());
+        mqMsg.setTimestamp(Instant.now().toString());
+
+        String topicName = PROTOCOL.toLowerCase() + "-payload-topic";
+
+        bh.consume(entity);
+        bh.consume(mqMsg);
+        bh.consume(topicName);
+    }
+
+    @Benchmark
+    public void lean(Blackhole bh) {
+        Instant startTime = Instant.now();
+        String correlationId = CorrelationIds.next(startTime.toEpochMilli());
+
+        bh.consume(PayloadMapper.toEntity(request.getId(), request.getContent(), request.getTimestamp(), PROTOCOL, startTime));
+        bh.consume(PayloadMapper.toMessage(request.getId(), request.getContent(), correlationId, PROTOCOL, startTime));
+        bh.consume(PayloadMapper.topicFor(PROTOCOL));
+    }
+
+    @Benchmark
+    public String uuidRandom() {
+        return UUID.randomUUID().toString();
+    }
+
+    @Benchmark
+    public String uuidTimeOrdered() {
+        return CorrelationIds.next();
+    }
+}
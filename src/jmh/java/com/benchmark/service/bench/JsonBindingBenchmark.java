@@ -0,0 +1,75 @@
+package com.benchmark.service.bench;
+
+import com.benchmark.service.dto.InputPayload;
+import com.benchmark.service.dto.PayloadResponse;
+import com.benchmark.service.routes.JsonPayloadCodec;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * REST JSON binding cost per request: {@code camel*} mirrors Camel's Jackson data format as
+ * the REST binding used it (plain mapper, class lookup per call, pretty-printed output
+ * through a per-call writer into a stream), {@code fast*} is {@link JsonPayloadCodec}
+ * (rest.json.binding=fast). Run with {@code -prof gc} and compare
+ * {@code gc.alloc.rate.norm} (bytes/op) alongside ns/op.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonBindingBenchmark {
+
+    private ObjectMapper camelMapper;
+    private JsonPayloadCodec codec;
+    private byte[] requestJson;
+    private PayloadResponse response;
+
+    @Setup
+    public void setup() {
+        camelMapper = new ObjectMapper();
+        codec = new JsonPayloadCodec(new ObjectMapper().registerModule(new BlackbirdModule()));
+        requestJson = ("{\"id\":\"user-12345\",\"content\":\"Benchmark payload content\","
+                + "\"timestamp\":\"2024-01-01T00:00:00Z\",\"protocol\":\"REST\"}").getBytes(StandardCharsets.UTF_8);
+        response = new PayloadResponse("success", "Payload processed with correlation ID 0190b3a2-7c1e-7d4f-9a6b-3e2f1c0d9b8a");
+    }
+
+    @Benchmark
+    public InputPayload camelRead() throws IOException {
+        return camelMapper.readValue(new ByteArrayInputStream(requestJson), InputPayload.class);
+    }
+
+    @Benchmark
+    public InputPayload fastRead() throws IOException {
+        return codec.readPayload(new ByteArrayInputStream(requestJson));
+    }
+
+    @Benchmark
+    public byte[] camelWrite() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        camelMapper.writerWithDefaultPrettyPrinter().writeValue(out, response);
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] fastWrite() throws IOException {
+        return codec.writeResponse(response);
+    }
+}
@@ -0,0 +1,92 @@
+package com.benchmark.service.bench;
+
+import com.benchmark.service.dto.OutgoingMqMessage;
+import com.benchmark.service.messaging.OutgoingMessageCodec;
+import com.benchmark.service.messaging.PayloadNotification;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of encoding one Kafka notification as JSON versus protobuf. Run with
+ * {@code -prof gc} to see bytes allocated per message; the encode benchmarks also
+ * report the encoded size as an {@code encodedBytes} secondary result.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageEncodingBenchmark {
+
+    private OutgoingMessageCodec codec;
+    private ObjectReader jsonReader;
+    private OutgoingMqMessage message;
+    private byte[] jsonBytes;
+    private byte[] protoBytes;
+
+    @Setup
+    public void setup() throws JsonProcessingException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        codec = new OutgoingMessageCodec(objectMapper);
+        jsonReader = objectMapper.readerFor(OutgoingMqMessage.class);
+        message = new OutgoingMqMessage();
+        message.setUserId("user-12345");
+        message.setUserName("Benchmark payload content");
+        message.setNotificationType("NEW_PAYLOAD");
+        message.setCorrelationId(UUID.randomUUID().toString());
+        message.setProtocol("gRPC-Unary");
+        message.setProcessingStartTime(System.currentTimeMillis());
+        message.setTimestamp(Instant.now().toString());
+
+        jsonBytes = codec.encode(message, OutgoingMessageCodec.Format.JSON);
+        protoBytes = codec.encode(message, OutgoingMessageCodec.Format.PROTO);
+    }
+
+    /** Size of the last encoded message, reported next to the timing. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class EncodedSize {
+        public long encodedBytes;
+    }
+
+    @Benchmark
+    public byte[] encodeJson(EncodedSize size) throws JsonProcessingException {
+        byte[] encoded = codec.encode(message, OutgoingMessageCodec.Format.JSON);
+        size.encodedBytes = encoded.length;
+        return encoded;
+    }
+
+    @Benchmark
+    public byte[] encodeProto(EncodedSize size) throws JsonProcessingException {
+        byte[] encoded = codec.encode(message, OutgoingMessageCodec.Format.PROTO);
+        size.encodedBytes = encoded.length;
+        return encoded;
+    }
+
+    @Benchmark
+    public OutgoingMqMessage decodeJson() throws Exception {
+        return jsonReader.readValue(jsonBytes);
+    }
+
+    @Benchmark
+    public PayloadNotification decodeProto() throws Exception {
+        return PayloadNotification.parseFrom(protoBytes);
+    }
+}
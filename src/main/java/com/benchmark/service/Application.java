@@ -4,6 +4,7 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
 
 @SpringBootApplication
 public class Application {
@@ -13,6 +14,7 @@ public class Application {
     
     @Bean
     public ObjectMapper objectMapper() {
-        return new ObjectMapper();
+        // Blackbird replaces reflective property access with generated lambdas
+        return new ObjectMapper().registerModule(new BlackbirdModule());
     }
 }
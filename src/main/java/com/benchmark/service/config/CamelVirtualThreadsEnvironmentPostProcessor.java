@@ -0,0 +1,21 @@
+package com.benchmark.service.config;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+
+/**
+ * Camel reads {@code camel.threads.virtual.enabled} as a JVM system property when its
+ * thread pools are first created, which is before any bean runs. Setting it here lets
+ * {@code payload.execution.mode=virtual} switch Camel over as well.
+ */
+public class CamelVirtualThreadsEnvironmentPostProcessor implements EnvironmentPostProcessor {
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        if ("virtual".equalsIgnoreCase(environment.getProperty("payload.execution.mode"))
+                && System.getProperty("camel.threads.virtual.enabled") == null) {
+            System.setProperty("camel.threads.virtual.enabled", "true");
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.benchmark.service.config;
+
+import io.grpc.ServerBuilder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordingStream;
+import org.apache.coyote.ProtocolHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Selects how the gRPC server, the servlet container and Camel run request work.
+ * <ul>
+ *   <li>{@code platform} - today's behaviour: default gRPC cached executor and Tomcat worker pool.</li>
+ *   <li>{@code virtual} - one virtual thread per gRPC call and per servlet request.</li>
+ *   <li>{@code offload} - gRPC runs on the transport threads ({@code directExecutor}) and blocking
+ *       Spanner/Kafka work is handed to a bounded pool.</li>
+ * </ul>
+ */
+@Configuration
+public class ExecutionModeConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecutionModeConfig.class);
+
+    public enum Mode { PLATFORM, VIRTUAL, OFFLOAD }
+
+    @Value("${payload.execution.mode:platform}")
+    private String modeName;
+
+    @Value("${payload.execution.offload-threads:64}")
+    private int offloadThreads;
+
+    @Value("${payload.execution.offload-queue-capacity:1000}")
+    private int offloadQueueCapacity;
+
+    @Value("${payload.execution.pinned-threshold-ms:20}")
+    private long pinnedThresholdMs;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Mode mode;
+    private ExecutorService virtualExecutor;
+    private ThreadPoolExecutor offloadExecutor;
+    private ExecutorService platformWorkers;
+    private RecordingStream pinningEvents;
+    private final AtomicInteger activeVirtualTasks = new AtomicInteger();
+
+    @PostConstruct
+    public void init() {
+        mode = Mode.valueOf(modeName.trim().toUpperCase(Locale.ROOT));
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        Gauge.builder("payload.execution.threads", threads, ThreadMXBean::getThreadCount)
+                .description("Live platform threads")
+                .tag("mode", mode.name().toLowerCase(Locale.ROOT))
+                .tag("type", "platform")
+                .register(meterRegistry);
+
+        switch (mode) {
+            case VIRTUAL -> {
+                virtualExecutor = Executors.newVirtualThreadPerTaskExecutor();
+                Gauge.builder("payload.execution.threads", activeVirtualTasks, AtomicInteger::get)
+                        .description("Virtual threads currently running request work")
+                        .tag("mode", "virtual")
+                        .tag("type", "virtual")
+                        .register(meterRegistry);
+                startPinningEvents();
+            }
+            case OFFLOAD -> {
+                offloadExecutor = new ThreadPoolExecutor(offloadThreads, offloadThreads, 60, TimeUnit.SECONDS,
+                        new ArrayBlockingQueue<>(offloadQueueCapacity), namedThreads("payload-offload-"));
+                Gauge.builder("payload.execution.threads", offloadExecutor, ThreadPoolExecutor::getActiveCount)
+                        .description("Offload pool threads currently running blocking work")
+                        .tag("mode", "offload")
+                        .tag("type", "offload")
+                        .register(meterRegistry);
+                Gauge.builder("payload.execution.offload.queue", offloadExecutor, pool -> pool.getQueue().size())
+                        .description("Blocking work waiting for an offload thread")
+                        .register(meterRegistry);
+            }
+            default -> platformWorkers = Executors.newCachedThreadPool(namedThreads("payload-worker-"));
+        }
+        logger.info("Execution mode: {}", mode);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (pinningEvents != null) {
+            pinningEvents.close();
+        }
+        if (virtualExecutor != null) {
+            virtualExecutor.shutdown();
+        }
+        if (offloadExecutor != null) {
+            offloadExecutor.shutdown();
+        }
+        if (platformWorkers != null) {
+            platformWorkers.shutdown();
+        }
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Bounded pool for blocking payload work, or null unless the mode is {@code offload}.
+     */
+    public Executor getOffloadExecutor() {
+        return offloadExecutor;
+    }
+
+    /**
+     * Executor for work that callers fan out themselves, such as parallel stream messages.
+     */
+    public Executor getWorkerExecutor() {
+        return switch (mode) {
+            case VIRTUAL -> this::executeOnVirtualThread;
+            case OFFLOAD -> offloadExecutor;
+            default -> platformWorkers;
+        };
+    }
+
+    public void applyTo(ServerBuilder<?> builder) {
+        switch (mode) {
+            case VIRTUAL -> builder.executor(this::executeOnVirtualThread);
+            case OFFLOAD -> builder.directExecutor();
+            default -> {
+            }
+        }
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "payload.execution.mode", havingValue = "virtual")
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadTomcatCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor((Executor) this::executeOnVirtualThread);
+    }
+
+    private void executeOnVirtualThread(Runnable task) {
+        virtualExecutor.execute(() -> {
+            activeVirtualTasks.incrementAndGet();
+            try {
+                task.run();
+            } finally {
+                activeVirtualTasks.decrementAndGet();
+            }
+        });
+    }
+
+    private void startPinningEvents() {
+        Counter pinned = Counter.builder("payload.execution.pinned")
+                .description("Virtual threads pinned to their carrier longer than the threshold")
+                .register(meterRegistry);
+        Timer pinnedTime = Timer.builder("payload.execution.pinned.duration")
+                .description("Time virtual threads spent pinned to their carrier")
+                .register(meterRegistry);
+
+        pinningEvents = new RecordingStream();
+        pinningEvents.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ofMillis(pinnedThresholdMs));
+        pinningEvents.onEvent("jdk.VirtualThreadPinned", event -> {
+            pinned.increment();
+            pinnedTime.record(event.getDuration());
+        });
+        pinningEvents.startAsync();
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -1,5 +1,6 @@
 package com.benchmark.service.config;
 
+import com.benchmark.service.grpc.GrpcMetricsInterceptor;
 import com.benchmark.service.grpc.PayloadServiceImpl;
 import io.grpc.Server;
 import io.grpc.ServerBuilder;
@@ -25,17 +26,27 @@ public class GrpcServerConfig {
     @Autowired
     private PayloadServiceImpl payloadServiceImpl;
 
+    @Autowired
+    private ExecutionModeConfig executionMode;
+
+    @Autowired
+    private GrpcMetricsInterceptor metricsInterceptor;
+
+    @Autowired
+    private GrpcTransportConfig transport;
+
     private Server grpcServer;
 
     @PostConstruct
     public void startGrpcServer() {
         try {
-            grpcServer = ServerBuilder.forPort(grpcPort)
+            ServerBuilder<?> builder = transport.newServerBuilder(grpcPort)
                     .addService(payloadServiceImpl)
-                    .build()
-                    .start();
+                    .intercept(metricsInterceptor);
+            executionMode.applyTo(builder);
+            grpcServer = builder.build().start();
             
-            logger.info("gRPC server started on port {}", grpcPort);
+            logger.info("gRPC server started on port {} ({} execution mode)", grpcPort, executionMode.getMode());
             
             // Add shutdown hook
             Runtime.getRuntime().addShutdownHook(new Thread(() -> {
@@ -0,0 +1,188 @@
+package com.benchmark.service.config;
+
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import io.grpc.netty.shaded.io.netty.buffer.PooledByteBufAllocator;
+import io.grpc.netty.shaded.io.netty.channel.ChannelOption;
+import io.grpc.netty.shaded.io.netty.channel.EventLoopGroup;
+import io.grpc.netty.shaded.io.netty.channel.ServerChannel;
+import io.grpc.netty.shaded.io.netty.channel.epoll.Epoll;
+import io.grpc.netty.shaded.io.netty.channel.epoll.EpollEventLoopGroup;
+import io.grpc.netty.shaded.io.netty.channel.epoll.EpollServerSocketChannel;
+import io.grpc.netty.shaded.io.netty.channel.nio.NioEventLoopGroup;
+import io.grpc.netty.shaded.io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.grpc.netty.shaded.io.netty.util.concurrent.DefaultThreadFactory;
+import io.grpc.netty.shaded.io.netty.util.internal.PlatformDependent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Netty transport profile for the gRPC servers ({@code grpc.transport.*}).
+ * <p>The native server gets the full profile: epoll when available, boss/worker event
+ * loop sizes, flow-control window, max inbound message size, max concurrent calls per
+ * connection, keepalive and max connection age. The Camel consumer only exposes
+ * {@code flowControlWindow}, {@code maxMessageSize} and {@code maxConcurrentCallsPerConnection}
+ * as endpoint options, so those are applied to it through {@link #camelEndpointOptions()}.
+ * <p>Direct memory used by Netty is exported as a {@code netty.direct.memory.used} gauge for
+ * both the shaded Netty (native server) and the unshaded Netty (Camel consumer). The native
+ * server allocates from the shaded {@link PooledByteBufAllocator#DEFAULT} instead of gRPC's
+ * private allocator, so that allocator's usage is exported as {@code netty.allocator.memory.used}
+ * too; the Camel consumer's allocator cannot be set or read from here.
+ */
+@Configuration
+public class GrpcTransportConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(GrpcTransportConfig.class);
+
+    @Value("${grpc.transport.epoll:true}")
+    private boolean epollRequested;
+
+    @Value("${grpc.transport.boss-threads:1}")
+    private int bossThreads;
+
+    // 0 lets Netty pick 2 * available processors
+    @Value("${grpc.transport.worker-threads:0}")
+    private int workerThreads;
+
+    @Value("${grpc.transport.flow-control-window:1048576}")
+    private int flowControlWindow;
+
+    @Value("${grpc.transport.max-inbound-message-size:4194304}")
+    private int maxInboundMessageSize;
+
+    // 0 means unlimited
+    @Value("${grpc.transport.max-concurrent-calls-per-connection:0}")
+    private int maxConcurrentCallsPerConnection;
+
+    @Value("${grpc.transport.keepalive-time-seconds:30}")
+    private long keepAliveTimeSeconds;
+
+    @Value("${grpc.transport.keepalive-timeout-seconds:10}")
+    private long keepAliveTimeoutSeconds;
+
+    @Value("${grpc.transport.permit-keepalive-time-seconds:10}")
+    private long permitKeepAliveTimeSeconds;
+
+    @Value("${grpc.transport.permit-keepalive-without-calls:true}")
+    private boolean permitKeepAliveWithoutCalls;
+
+    // 0 disables connection ageing
+    @Value("${grpc.transport.max-connection-age-seconds:0}")
+    private long maxConnectionAgeSeconds;
+
+    @Value("${grpc.transport.max-connection-age-grace-seconds:30}")
+    private long maxConnectionAgeGraceSeconds;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private boolean epoll;
+    private EventLoopGroup bossGroup;
+    private EventLoopGroup workerGroup;
+
+    @PostConstruct
+    public void init() {
+        epoll = epollRequested && Epoll.isAvailable();
+        if (epollRequested && !epoll) {
+            logger.warn("Native epoll transport unavailable, falling back to NIO: {}", Epoll.unavailabilityCause().toString());
+        }
+        registerDirectMemoryMetric("shaded", PlatformDependent::usedDirectMemory);
+        registerDirectMemoryMetric("unshaded", io.netty.util.internal.PlatformDependent::usedDirectMemory);
+        io.grpc.netty.shaded.io.netty.buffer.PooledByteBufAllocatorMetric allocator = PooledByteBufAllocator.DEFAULT.metric();
+        registerAllocatorMetric("shaded", "direct", allocator::usedDirectMemory);
+        registerAllocatorMetric("shaded", "heap", allocator::usedHeapMemory);
+    }
+
+    /**
+     * Server builder for the native gRPC server with the full transport profile applied.
+     */
+    public NettyServerBuilder newServerBuilder(int port) {
+        if (bossGroup == null) {
+            bossGroup = newEventLoopGroup(bossThreads, "grpc-boss");
+            workerGroup = newEventLoopGroup(workerThreads, "grpc-worker");
+        }
+        Class<? extends ServerChannel> channelType = epoll ? EpollServerSocketChannel.class : NioServerSocketChannel.class;
+
+        NettyServerBuilder builder = NettyServerBuilder.forPort(port)
+                .channelType(channelType)
+                .bossEventLoopGroup(bossGroup)
+                .workerEventLoopGroup(workerGroup)
+                .initialFlowControlWindow(flowControlWindow)
+                .maxInboundMessageSize(maxInboundMessageSize)
+                .keepAliveTime(keepAliveTimeSeconds, TimeUnit.SECONDS)
+                .keepAliveTimeout(keepAliveTimeoutSeconds, TimeUnit.SECONDS)
+                .permitKeepAliveTime(permitKeepAliveTimeSeconds, TimeUnit.SECONDS)
+                .permitKeepAliveWithoutCalls(permitKeepAliveWithoutCalls)
+                // The allocator the gauges read; gRPC would otherwise use one of its own
+                .withOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
+                .withChildOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT);
+        if (maxConcurrentCallsPerConnection > 0) {
+            builder.maxConcurrentCallsPerConnection(maxConcurrentCallsPerConnection);
+        }
+        if (maxConnectionAgeSeconds > 0) {
+            builder.maxConnectionAge(maxConnectionAgeSeconds, TimeUnit.SECONDS)
+                    .maxConnectionAgeGrace(maxConnectionAgeGraceSeconds, TimeUnit.SECONDS);
+        }
+
+        logger.info("gRPC transport on port {}: {} (boss={}, worker={}), flowControlWindow={}, maxInboundMessageSize={}, "
+                        + "maxConcurrentCallsPerConnection={}, keepAlive={}s/{}s, maxConnectionAge={}s",
+                port, epoll ? "epoll" : "nio", bossThreads, workerThreads == 0 ? "default" : workerThreads,
+                flowControlWindow, maxInboundMessageSize,
+                maxConcurrentCallsPerConnection > 0 ? maxConcurrentCallsPerConnection : "unlimited",
+                keepAliveTimeSeconds, keepAliveTimeoutSeconds, maxConnectionAgeSeconds);
+        return builder;
+    }
+
+    /**
+     * The subset of the profile the Camel gRPC endpoint supports, as URI query options
+     * (each prefixed with {@code &}).
+     */
+    public String camelEndpointOptions() {
+        StringBuilder options = new StringBuilder()
+                .append("&flowControlWindow=").append(flowControlWindow)
+                .append("&maxMessageSize=").append(maxInboundMessageSize);
+        if (maxConcurrentCallsPerConnection > 0) {
+            options.append("&maxConcurrentCallsPerConnection=").append(maxConcurrentCallsPerConnection);
+        }
+        return options.toString();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (bossGroup != null) {
+            bossGroup.shutdownGracefully();
+            workerGroup.shutdownGracefully();
+        }
+    }
+
+    private EventLoopGroup newEventLoopGroup(int threads, String name) {
+        DefaultThreadFactory threadFactory = new DefaultThreadFactory(name, true);
+        return epoll ? new EpollEventLoopGroup(threads, threadFactory) : new NioEventLoopGroup(threads, threadFactory);
+    }
+
+    private void registerDirectMemoryMetric(String netty, Supplier<Number> usedDirectMemory) {
+        Gauge.builder("netty.direct.memory.used", usedDirectMemory)
+                .description("Direct memory reserved by Netty")
+                .baseUnit("bytes")
+                .tag("netty", netty)
+                .register(meterRegistry);
+    }
+
+    private void registerAllocatorMetric(String netty, String type, Supplier<Number> used) {
+        Gauge.builder("netty.allocator.memory.used", used)
+                .description("Memory held by the pooled allocator")
+                .baseUnit("bytes")
+                .tag("netty", netty)
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+}
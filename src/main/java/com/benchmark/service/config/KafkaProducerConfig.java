@@ -0,0 +1,48 @@
+package com.benchmark.service.config;
+
+import com.benchmark.service.messaging.KafkaDeliveryProfile;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.DefaultKafkaProducerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Map;
+
+/**
+ * Applies the selected {@link KafkaDeliveryProfile} on top of {@code spring.kafka.producer.*}.
+ * The client id carries the profile name, so the Kafka client metrics exported by the
+ * actuator (batch size, record rates per topic, request latency) can be told apart.
+ */
+@Configuration
+public class KafkaProducerConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(KafkaProducerConfig.class);
+
+    @Value("${kafka.delivery.profile:low-latency}")
+    private String profileName;
+
+    @Value("${kafka.delivery.throughput.linger-ms:20}")
+    private int throughputLingerMs;
+
+    @Value("${kafka.delivery.throughput.batch-size:262144}")
+    private int throughputBatchSize;
+
+    @Value("${kafka.delivery.throughput.compression:lz4}")
+    private String throughputCompression;
+
+    @Bean
+    public KafkaDeliveryProfile kafkaDeliveryProfile() {
+        return KafkaDeliveryProfile.fromName(profileName);
+    }
+
+    @Bean
+    public DefaultKafkaProducerFactoryCustomizer deliveryProfileCustomizer(KafkaDeliveryProfile profile) {
+        Map<String, Object> configs = profile.producerConfigs(throughputLingerMs, throughputBatchSize, throughputCompression);
+        configs.put(ProducerConfig.CLIENT_ID_CONFIG, "payload-" + profile.tagValue());
+        logger.info("Kafka delivery profile {}: {}", profile.tagValue(), configs);
+        return producerFactory -> producerFactory.updateConfigs(configs);
+    }
+}
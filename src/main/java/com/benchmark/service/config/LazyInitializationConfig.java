@@ -0,0 +1,39 @@
+package com.benchmark.service.config;
+
+import com.benchmark.service.grpc.PayloadServiceImpl;
+import com.benchmark.service.messaging.KafkaPayloadPublisher;
+import com.benchmark.service.messaging.KafkaSpoolReplayer;
+import com.benchmark.service.routes.RestPayloadBinding;
+import com.benchmark.service.service.OutboxRelay;
+import com.benchmark.service.service.PayloadProcessor;
+import com.benchmark.service.service.SpannerBatchWriter;
+import org.apache.camel.RoutesBuilder;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Beans kept eager when {@code spring.main.lazy-initialization=true}. Lazy initialisation
+ * takes auto-configured infrastructure off the startup path (actuator endpoints, MVC
+ * plumbing, the query service), but the request path and anything that starts
+ * a server or background thread in {@code @PostConstruct} must still be created at startup:
+ * a lazy {@link GrpcServerConfig} would never listen and a lazy {@link OutboxRelay} would
+ * never relay.
+ */
+@Configuration
+public class LazyInitializationConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter requestPathBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(
+                RoutesBuilder.class,
+                GrpcServerConfig.class,
+                PayloadServiceImpl.class,
+                PayloadProcessor.class,
+                SpannerBatchWriter.class,
+                KafkaPayloadPublisher.class,
+                KafkaSpoolReplayer.class,
+                RestPayloadBinding.class,
+                OutboxRelay.class);
+    }
+}
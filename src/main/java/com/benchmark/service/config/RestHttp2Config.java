@@ -0,0 +1,154 @@
+package com.benchmark.service.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.apache.coyote.AbstractProtocol;
+import org.apache.coyote.http2.Http2Protocol;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.tomcat.TomcatConnectorCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * HTTP/2 cleartext (h2c) on the servlet REST port, so REST clients can multiplex requests
+ * over a few connections like the gRPC channel does. With {@code rest.http2.enabled} the
+ * Tomcat connector accepts both prior-knowledge h2c and {@code Upgrade: h2c}; HTTP/1.1
+ * clients are unaffected. The netty-http REST transport stays HTTP/1.1.
+ * <p>Exports {@code rest.http.connections} (open connector connections),
+ * {@code rest.http.inflight} (requests in progress) and {@code rest.http.requests}, the
+ * latter two tagged by HTTP version, so in-flight HTTP/2 requests per connection give the
+ * stream concurrency.
+ */
+@Configuration
+public class RestHttp2Config {
+
+    private static final Logger logger = LoggerFactory.getLogger(RestHttp2Config.class);
+
+    @Value("${rest.http2.enabled:true}")
+    private boolean enabled;
+
+    @Value("${rest.http2.max-concurrent-streams:200}")
+    private long maxConcurrentStreams;
+
+    @Value("${rest.http2.initial-window-size:1048576}")
+    private int initialWindowSize;
+
+    @Value("${rest.http2.keep-alive-timeout-ms:20000}")
+    private long keepAliveTimeoutMs;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Bean
+    public TomcatConnectorCustomizer restHttp2ConnectorCustomizer() {
+        return connector -> {
+            if (enabled) {
+                Http2Protocol http2 = new Http2Protocol();
+                http2.setMaxConcurrentStreams(maxConcurrentStreams);
+                http2.setInitialWindowSize(initialWindowSize);
+                http2.setKeepAliveTimeout(keepAliveTimeoutMs);
+                connector.addUpgradeProtocol(http2);
+                logger.info("h2c enabled on port {} (maxConcurrentStreams={}, initialWindowSize={})",
+                        connector.getPort(), maxConcurrentStreams, initialWindowSize);
+            }
+            if (connector.getProtocolHandler() instanceof AbstractProtocol<?> protocol) {
+                Gauge.builder("rest.http.connections", protocol, p -> p.getConnectionCount())
+                        .description("Open connections on the servlet connector")
+                        .tag("port", String.valueOf(connector.getPort()))
+                        .register(meterRegistry);
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<HttpVersionMetricsFilter> httpVersionMetricsFilter() {
+        FilterRegistrationBean<HttpVersionMetricsFilter> registration =
+                new FilterRegistrationBean<>(new HttpVersionMetricsFilter(meterRegistry));
+        registration.addUrlPatterns("/camel/*");
+        return registration;
+    }
+
+    /**
+     * Counts requests and requests in flight per HTTP version. The REST routes complete
+     * asynchronously, so async requests are counted until the async cycle completes.
+     */
+    static final class HttpVersionMetricsFilter implements Filter {
+
+        private final MeterRegistry meterRegistry;
+        private final Map<String, VersionMeters> meters = new ConcurrentHashMap<>();
+
+        HttpVersionMetricsFilter(MeterRegistry meterRegistry) {
+            this.meterRegistry = meterRegistry;
+        }
+
+        @Override
+        public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+                throws IOException, ServletException {
+            VersionMeters version = meters.computeIfAbsent(request.getProtocol(), VersionMeters::new);
+            version.requests.increment();
+            version.inflight.incrementAndGet();
+            boolean async = false;
+            try {
+                chain.doFilter(request, response);
+                if (request.isAsyncStarted()) {
+                    request.getAsyncContext().addListener(version);
+                    async = true;
+                }
+            } finally {
+                if (!async) {
+                    version.inflight.decrementAndGet();
+                }
+            }
+        }
+
+        private final class VersionMeters implements AsyncListener {
+            private final AtomicInteger inflight = new AtomicInteger();
+            private final Counter requests;
+
+            private VersionMeters(String version) {
+                Gauge.builder("rest.http.inflight", inflight, AtomicInteger::get)
+                        .description("REST requests in progress (HTTP/2: concurrent streams)")
+                        .tag("version", version)
+                        .register(meterRegistry);
+                requests = Counter.builder("rest.http.requests")
+                        .description("REST requests received")
+                        .tag("version", version)
+                        .register(meterRegistry);
+            }
+
+            @Override
+            public void onComplete(AsyncEvent event) {
+                inflight.decrementAndGet();
+            }
+
+            @Override
+            public void onTimeout(AsyncEvent event) {
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        }
+    }
+}
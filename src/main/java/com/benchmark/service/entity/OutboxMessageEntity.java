@@ -0,0 +1,69 @@
+package com.benchmark.service.entity;
+
+import com.google.cloud.ByteArray;
+import com.google.cloud.spring.data.spanner.core.mapping.Column;
+import com.google.cloud.spring.data.spanner.core.mapping.PrimaryKey;
+import com.google.cloud.spring.data.spanner.core.mapping.Table;
+import java.time.Instant;
+
+/**
+ * Kafka message waiting to be relayed, written in the same Spanner commit as its
+ * {@link InputPayloadEntity}. {@code claimed_by} and {@code lease_until} are set by the
+ * relay replica that is currently sending the message.
+ *
+ * <pre>
+ * CREATE TABLE payload_outbox (
+ *   id STRING(64) NOT NULL,
+ *   topic STRING(256) NOT NULL,
+ *   message_key STRING(64),
+ *   payload BYTES(MAX),
+ *   content_type STRING(64) NOT NULL,
+ *   created_at TIMESTAMP NOT NULL,
+ *   claimed_by STRING(64),
+ *   lease_until TIMESTAMP,
+ * ) PRIMARY KEY (id);
+ * CREATE INDEX payload_outbox_by_lease ON payload_outbox (lease_until, created_at);
+ * </pre>
+ */
+@Table(name = "payload_outbox")
+public class OutboxMessageEntity {
+    @PrimaryKey
+    private String id;
+    private String topic;
+    @Column(name = "message_key")
+    private String messageKey;
+    private ByteArray payload;
+    @Column(name = "content_type")
+    private String contentType;
+    @Column(name = "created_at")
+    private Instant createdAt;
+    @Column(name = "claimed_by")
+    private String claimedBy;
+    @Column(name = "lease_until")
+    private Instant leaseUntil;
+
+    // Getters and setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getTopic() { return topic; }
+    public void setTopic(String topic) { this.topic = topic; }
+
+    public String getMessageKey() { return messageKey; }
+    public void setMessageKey(String messageKey) { this.messageKey = messageKey; }
+
+    public ByteArray getPayload() { return payload; }
+    public void setPayload(ByteArray payload) { this.payload = payload; }
+
+    public String getContentType() { return contentType; }
+    public void setContentType(String contentType) { this.contentType = contentType; }
+
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+
+    public String getClaimedBy() { return claimedBy; }
+    public void setClaimedBy(String claimedBy) { this.claimedBy = claimedBy; }
+
+    public Instant getLeaseUntil() { return leaseUntil; }
+    public void setLeaseUntil(Instant leaseUntil) { this.leaseUntil = leaseUntil; }
+}
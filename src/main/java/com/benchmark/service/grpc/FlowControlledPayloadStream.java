@@ -0,0 +1,158 @@
+package com.benchmark.service.grpc;
+
+import com.benchmark.service.util.FutureUtils;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+/**
+ * Request side of a {@code StreamPayloads} call with manual flow control.
+ *
+ * <p>Auto-request is disabled and at most {@code window} messages are outstanding per
+ * stream: a new message is requested only after a response has been written, so a slow
+ * reader or a slow backend throttles the client. Outstanding messages are processed in
+ * parallel on the worker executor; without one the handler is called on the transport thread,
+ * for handlers that offload their blocking work themselves. In ordered mode responses are released in request
+ * order; otherwise each is sent as soon as it completes. Responses are only written
+ * while the transport reports {@code isReady()}.
+ */
+class FlowControlledPayloadStream implements StreamObserver<InputPayload> {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlowControlledPayloadStream.class);
+
+    private final ServerCallStreamObserver<PayloadResponse> responseObserver;
+    private final Function<InputPayload, CompletableFuture<PayloadResponse>> handler;
+    private final Executor workerExecutor;
+    private final boolean ordered;
+
+    // All fields below are guarded by this
+    private final ArrayDeque<PayloadResponse> readyToSend = new ArrayDeque<>();
+    private final Map<Long, PayloadResponse> completedOutOfOrder = new HashMap<>();
+    private long nextSequence;
+    private long nextToRelease;
+    private int outstanding;
+    private boolean inputCompleted;
+    private boolean finished;
+
+    FlowControlledPayloadStream(ServerCallStreamObserver<PayloadResponse> responseObserver,
+                                Function<InputPayload, CompletableFuture<PayloadResponse>> handler,
+                                Executor workerExecutor, int window, boolean ordered) {
+        this.responseObserver = responseObserver;
+        this.handler = handler;
+        this.workerExecutor = workerExecutor;
+        this.ordered = ordered;
+
+        responseObserver.disableAutoRequest();
+        responseObserver.setOnReadyHandler(this::drain);
+        responseObserver.setOnCancelHandler(this::cancel);
+        responseObserver.request(window);
+    }
+
+    @Override
+    public void onNext(InputPayload request) {
+        long sequence;
+        synchronized (this) {
+            sequence = nextSequence++;
+            outstanding++;
+        }
+
+        CompletableFuture<PayloadResponse> processing;
+        try {
+            processing = workerExecutor == null
+                    ? handler.apply(request)
+                    : CompletableFuture.supplyAsync(() -> handler.apply(request), workerExecutor)
+                            .thenCompose(Function.identity());
+        } catch (RejectedExecutionException e) {
+            // The worker pool is saturated: answer this message like a shed one so the stream carries on
+            completed(sequence, PayloadResponse.newBuilder()
+                    .setStatus("rejected")
+                    .setMessage("Streaming request rejected: " + e.getMessage())
+                    .setId(request.getId())
+                    .build());
+            return;
+        } catch (RuntimeException e) {
+            processing = CompletableFuture.failedFuture(e);
+        }
+        processing.whenComplete((response, error) -> {
+                if (error != null) {
+                    Throwable cause = FutureUtils.unwrap(error);
+                    logger.error("Error processing streaming request", cause);
+                    response = PayloadResponse.newBuilder()
+                            .setStatus("error")
+                            .setMessage("Streaming processing failed: " + cause.getMessage())
+                            .setId(request.getId())
+                            .build();
+                }
+                completed(sequence, response);
+            });
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        logger.error("Error in streaming request", t);
+        synchronized (this) {
+            if (finished) {
+                return;
+            }
+            finished = true;
+        }
+        responseObserver.onError(t);
+    }
+
+    @Override
+    public void onCompleted() {
+        logger.debug("Streaming request completed");
+        synchronized (this) {
+            inputCompleted = true;
+        }
+        drain();
+    }
+
+    private void completed(long sequence, PayloadResponse response) {
+        synchronized (this) {
+            if (ordered) {
+                completedOutOfOrder.put(sequence, response);
+                PayloadResponse next;
+                while ((next = completedOutOfOrder.remove(nextToRelease)) != null) {
+                    readyToSend.add(next);
+                    nextToRelease++;
+                }
+            } else {
+                readyToSend.add(response);
+            }
+        }
+        drain();
+    }
+
+    private synchronized void drain() {
+        if (finished) {
+            return;
+        }
+        while (!readyToSend.isEmpty() && responseObserver.isReady()) {
+            responseObserver.onNext(readyToSend.poll());
+            outstanding--;
+            if (!inputCompleted) {
+                responseObserver.request(1);
+            }
+        }
+        if (inputCompleted && outstanding == 0) {
+            finished = true;
+            responseObserver.onCompleted();
+        }
+    }
+
+    private synchronized void cancel() {
+        finished = true;
+        readyToSend.clear();
+        completedOutOfOrder.clear();
+    }
+}
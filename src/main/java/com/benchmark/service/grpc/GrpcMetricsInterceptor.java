@@ -0,0 +1,185 @@
+package com.benchmark.service.grpc;
+
+import com.google.protobuf.MessageLite;
+import io.grpc.ForwardingServerCall;
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Grpc;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Transport-level metrics for every gRPC call, tagged by method and by the local port so
+ * the native server (6566) and the Camel consumer (6565) can be compared:
+ * <ul>
+ *   <li>{@code grpc.server.calls} - call latency from start to close, by status code</li>
+ *   <li>{@code grpc.server.message.size} - serialized request/response message sizes</li>
+ *   <li>{@code grpc.server.active} - calls currently open</li>
+ *   <li>{@code grpc.server.stream.messages} - messages per call for streaming methods</li>
+ * </ul>
+ * Registered on the native server in {@code GrpcServerConfig}; the Camel gRPC consumer
+ * picks it up as a {@link ServerInterceptor} bean.
+ */
+@Component
+public class GrpcMetricsInterceptor implements ServerInterceptor {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, MethodMeters> methodMeters = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> activeCalls = new ConcurrentHashMap<>();
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> next) {
+        String port = localPort(call);
+        MethodDescriptor<ReqT, RespT> method = call.getMethodDescriptor();
+        MethodMeters meters = methodMeters.computeIfAbsent(port + '|' + method.getFullMethodName(),
+                key -> new MethodMeters(port, method));
+        AtomicInteger active = activeCalls.computeIfAbsent(port, this::registerActiveGauge);
+
+        CallState state = new CallState(System.nanoTime());
+        active.incrementAndGet();
+
+        ServerCall<ReqT, RespT> monitoredCall = new ForwardingServerCall.SimpleForwardingServerCall<>(call) {
+            @Override
+            public void sendMessage(RespT message) {
+                state.responses++;
+                meters.responseSize.record(serializedSize(message));
+                super.sendMessage(message);
+            }
+
+            @Override
+            public void close(Status status, Metadata trailers) {
+                if (state.closed.compareAndSet(0, 1)) {
+                    active.decrementAndGet();
+                    meters.record(status, System.nanoTime() - state.startNanos, state);
+                }
+                super.close(status, trailers);
+            }
+        };
+
+        ServerCall.Listener<ReqT> listener = next.startCall(monitoredCall, headers);
+        return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(listener) {
+            @Override
+            public void onMessage(ReqT message) {
+                state.requests++;
+                meters.requestSize.record(serializedSize(message));
+                super.onMessage(message);
+            }
+
+            @Override
+            public void onCancel() {
+                // Cancelled calls are never closed by the handler
+                if (state.closed.compareAndSet(0, 1)) {
+                    active.decrementAndGet();
+                    meters.record(Status.CANCELLED, System.nanoTime() - state.startNanos, state);
+                }
+                super.onCancel();
+            }
+        };
+    }
+
+    private AtomicInteger registerActiveGauge(String port) {
+        AtomicInteger active = new AtomicInteger();
+        Gauge.builder("grpc.server.active", active, AtomicInteger::get)
+                .description("gRPC calls currently open")
+                .tag("port", port)
+                .register(meterRegistry);
+        return active;
+    }
+
+    private static String localPort(ServerCall<?, ?> call) {
+        SocketAddress address = call.getAttributes().get(Grpc.TRANSPORT_ATTR_LOCAL_ADDR);
+        return address instanceof InetSocketAddress inet ? String.valueOf(inet.getPort()) : "unknown";
+    }
+
+    private static int serializedSize(Object message) {
+        // Protobuf caches the size, so this does not serialize the message a second time
+        return message instanceof MessageLite proto ? proto.getSerializedSize() : 0;
+    }
+
+    private static final class CallState {
+        private final long startNanos;
+        private final AtomicInteger closed = new AtomicInteger();
+        // Requests are delivered serially, responses are sent serially
+        private volatile long requests;
+        private volatile long responses;
+
+        private CallState(long startNanos) {
+            this.startNanos = startNanos;
+        }
+    }
+
+    private final class MethodMeters {
+        private final String port;
+        private final String methodName;
+        private final boolean streaming;
+        private final DistributionSummary requestSize;
+        private final DistributionSummary responseSize;
+        private final DistributionSummary streamRequests;
+        private final DistributionSummary streamResponses;
+        private final Map<Status.Code, Timer> callTimers = new ConcurrentHashMap<>();
+
+        private MethodMeters(String port, MethodDescriptor<?, ?> method) {
+            this.port = port;
+            this.methodName = method.getFullMethodName();
+            this.streaming = method.getType() != MethodDescriptor.MethodType.UNARY;
+            this.requestSize = messageSize("request");
+            this.responseSize = messageSize("response");
+            this.streamRequests = streaming ? streamMessages("request") : null;
+            this.streamResponses = streaming ? streamMessages("response") : null;
+        }
+
+        private void record(Status status, long elapsedNanos, CallState state) {
+            callTimers.computeIfAbsent(status.getCode(), code -> Timer.builder("grpc.server.calls")
+                            .description("gRPC call latency from start to close")
+                            .tag("port", port)
+                            .tag("method", methodName)
+                            .tag("status", code.name())
+                            .publishPercentileHistogram()
+                            .register(meterRegistry))
+                    .record(elapsedNanos, TimeUnit.NANOSECONDS);
+            if (streaming) {
+                streamRequests.record(state.requests);
+                streamResponses.record(state.responses);
+            }
+        }
+
+        private DistributionSummary messageSize(String direction) {
+            return DistributionSummary.builder("grpc.server.message.size")
+                    .description("Serialized gRPC message size")
+                    .baseUnit("bytes")
+                    .tag("port", port)
+                    .tag("method", methodName)
+                    .tag("direction", direction)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+
+        private DistributionSummary streamMessages(String direction) {
+            return DistributionSummary.builder("grpc.server.stream.messages")
+                    .description("Messages exchanged per streaming call")
+                    .tag("port", port)
+                    .tag("method", methodName)
+                    .tag("direction", direction)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -1,56 +1,151 @@
 package com.benchmark.service.grpc;
 
-import com.benchmark.service.dto.InputPayload;
-import com.benchmark.service.service.TransactionalPayloadService;
+import com.benchmark.service.config.ExecutionModeConfig;
+import com.benchmark.service.entity.InputPayloadEntity;
+import com.benchmark.service.limit.PayloadRejectedException;
+import com.benchmark.service.logging.RequestLogger;
+import com.benchmark.service.metrics.PayloadStageMetrics;
+import com.benchmark.service.service.PayloadProcessor;
+import com.benchmark.service.service.PayloadQueryService;
+import com.benchmark.service.util.FutureUtils;
+import com.benchmark.service.util.GrpcPayloadConverter;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
 @Service
 public class PayloadServiceImpl extends PayloadServiceGrpc.PayloadServiceImplBase {
 
     private static final Logger logger = LoggerFactory.getLogger(PayloadServiceImpl.class);
 
     @Autowired
-    private TransactionalPayloadService payloadService;
+    private PayloadProcessor payloadService;
+
+    @Autowired
+    private PayloadQueryService queryService;
+
+    @Autowired
+    private ExecutionModeConfig executionMode;
+
+    @Autowired
+    private RequestLogger requestLogger;
+
+    @Autowired
+    private PayloadStageMetrics stageMetrics;
+
+    @Value("${grpc.stream.window:32}")
+    private int streamWindow;
+
+    @Value("${grpc.stream.ordered:true}")
+    private boolean orderedStreamResponses;
 
     @Override
     public void sendPayload(com.benchmark.service.grpc.InputPayload request,
                            StreamObserver<PayloadResponse> responseObserver) {
-        logger.info("Received gRPC unary request: {}", request.getId());
-        
-        try {
-            // Convert protobuf to DTO
-            InputPayload payload = new InputPayload();
-            payload.setId(request.getId());
-            payload.setContent(request.getContent());
-            payload.setTimestamp(request.getTimestamp());
-            payload.setProtocol(request.getProtocol());
-
-            // Process the payload
-            String result = payloadService.processPayload(payload, "gRPC-Unary");
-            
+        long start = requestLogger.start();
+
+        // Process the payload; the response is sent from the completion callback
+        payloadService.processPayloadAsync(request, "gRPC-Unary").whenComplete((result, error) -> {
+            if (error != null) {
+                Throwable cause = FutureUtils.unwrap(error);
+                if (cause instanceof PayloadRejectedException rejected) {
+                    reject(responseObserver, "gRPC-Unary", start, rejected);
+                    return;
+                }
+                requestLogger.failed("grpc-unary", request.getId(), start, cause);
+                PayloadResponse errorResponse = PayloadResponse.newBuilder()
+                        .setStatus("error")
+                        .setMessage("Processing failed: " + cause.getMessage())
+                        .setId(request.getId())
+                        .build();
+                respond(responseObserver, errorResponse, "gRPC-Unary", start, cause);
+                return;
+            }
+
             // Build response
             PayloadResponse response = PayloadResponse.newBuilder()
                     .setStatus("success")
                     .setMessage(result)
+                    .setId(request.getId())
                     .build();
             
-            responseObserver.onNext(response);
+            respond(responseObserver, response, "gRPC-Unary", start, null);
+
+            requestLogger.completed("grpc-unary", request.getId(), start, () -> result);
+        });
+    }
+
+    @Override
+    public void sendPayloadBatch(InputPayloadBatch request, StreamObserver<PayloadBatchResponse> responseObserver) {
+        long start = requestLogger.start();
+
+        payloadService.processPayloadBatchAsync(GrpcPayloadConverter.fromProto(request), "gRPC-Batch")
+                .whenComplete((results, error) -> {
+                    if (error != null) {
+                        Throwable cause = FutureUtils.unwrap(error);
+                        if (cause instanceof PayloadRejectedException rejected) {
+                            reject(responseObserver, "gRPC-Batch", start, rejected);
+                            return;
+                        }
+                        requestLogger.failed("grpc-batch", request.getPayloadsCount() + " payloads", start, cause);
+                        stageMetrics.record(PayloadStageMetrics.TOTAL, "gRPC-Batch", start, cause);
+                        responseObserver.onError(Status.INTERNAL
+                                .withDescription("Batch processing failed: " + cause.getMessage())
+                                .asRuntimeException());
+                        return;
+                    }
+
+                    PayloadBatchResponse response = GrpcPayloadConverter.toBatchResponse(request, results);
+                    respond(responseObserver, response, "gRPC-Batch", start, null);
+
+                    requestLogger.completed("grpc-batch", request.getPayloadsCount() + " payloads", start,
+                            () -> response.getSuccessCount() + " succeeded, " + response.getFailureCount() + " failed");
+                });
+    }
+
+    @Override
+    public void getPayload(PayloadLookup request, StreamObserver<com.benchmark.service.grpc.InputPayload> responseObserver) {
+        // A cache miss reads Spanner; keep it off the transport threads in offload mode
+        Executor offloadExecutor = executionMode.getOffloadExecutor();
+        if (offloadExecutor == null) {
+            lookup(request, responseObserver);
+            return;
+        }
+        try {
+            offloadExecutor.execute(() -> lookup(request, responseObserver));
+        } catch (RejectedExecutionException e) {
+            responseObserver.onError(Status.RESOURCE_EXHAUSTED
+                    .withDescription("Look-up rejected: " + e.getMessage())
+                    .asRuntimeException());
+        }
+    }
+
+    private void lookup(PayloadLookup request, StreamObserver<com.benchmark.service.grpc.InputPayload> responseObserver) {
+        try {
+            Optional<InputPayloadEntity> payload = queryService.findById(request.getId());
+            if (payload.isEmpty()) {
+                responseObserver.onError(Status.NOT_FOUND
+                        .withDescription("No payload with ID " + request.getId())
+                        .asRuntimeException());
+                return;
+            }
+            responseObserver.onNext(GrpcPayloadConverter.toProto(payload.get()));
             responseObserver.onCompleted();
-            
-            logger.info("gRPC unary response sent for ID: {}", request.getId());
-            
         } catch (Exception e) {
-            logger.error("Error processing gRPC unary request", e);
-            PayloadResponse errorResponse = PayloadResponse.newBuilder()
-                    .setStatus("error")
-                    .setMessage("Processing failed: " + e.getMessage())
-                    .build();
-            responseObserver.onNext(errorResponse);
-            responseObserver.onCompleted();
+            logger.error("Error looking up payload {}", request.getId(), e);
+            responseObserver.onError(Status.INTERNAL
+                    .withDescription("Look-up failed: " + e.getMessage())
+                    .asRuntimeException());
         }
     }
 
@@ -58,54 +153,62 @@ public class PayloadServiceImpl extends PayloadServiceGrpc.PayloadServiceImplBas
     public StreamObserver<com.benchmark.service.grpc.InputPayload> streamPayloads(
             StreamObserver<PayloadResponse> responseObserver) {
         
-        logger.info("Starting gRPC bidirectional streaming");
+        logger.info("Starting gRPC bidirectional streaming (window={}, ordered={})", streamWindow, orderedStreamResponses);
         
-        return new StreamObserver<com.benchmark.service.grpc.InputPayload>() {
-            @Override
-            public void onNext(com.benchmark.service.grpc.InputPayload request) {
-                logger.info("Received streaming request: {}", request.getId());
-                
-                try {
-                    // Convert protobuf to DTO
-                    InputPayload payload = new InputPayload();
-                    payload.setId(request.getId());
-                    payload.setContent(request.getContent());
-                    payload.setTimestamp(request.getTimestamp());
-                    payload.setProtocol(request.getProtocol());
-
-                    // Process the payload
-                    String result = payloadService.processPayload(payload, "gRPC-Streaming");
-                    
-                    // Build response
-                    PayloadResponse response = PayloadResponse.newBuilder()
-                            .setStatus("success")
-                            .setMessage(result)
-                            .build();
-                    
-                    responseObserver.onNext(response);
-                    logger.info("Streaming response sent for ID: {}", request.getId());
-                    
-                } catch (Exception e) {
-                    logger.error("Error processing streaming request", e);
-                    PayloadResponse errorResponse = PayloadResponse.newBuilder()
-                            .setStatus("error")
-                            .setMessage("Streaming processing failed: " + e.getMessage())
+        // In offload mode the processor already moves blocking work to the offload pool; a second
+        // hop through the same pool would take two of its slots per message
+        Executor workerExecutor = executionMode.getOffloadExecutor() != null ? null : executionMode.getWorkerExecutor();
+        return new FlowControlledPayloadStream((ServerCallStreamObserver<PayloadResponse>) responseObserver,
+                this::processStreamingRequest, workerExecutor, streamWindow, orderedStreamResponses);
+    }
+
+    private CompletableFuture<PayloadResponse> processStreamingRequest(com.benchmark.service.grpc.InputPayload request) {
+        long start = requestLogger.start();
+
+        return payloadService.processPayloadAsync(request, "gRPC-Streaming").handle((result, error) -> {
+            if (error != null) {
+                Throwable cause = FutureUtils.unwrap(error);
+                stageMetrics.record(PayloadStageMetrics.TOTAL, "gRPC-Streaming", start, cause);
+                // A status would end the whole stream, so a shed message gets its own response
+                if (cause instanceof PayloadRejectedException) {
+                    return PayloadResponse.newBuilder()
+                            .setStatus("rejected")
+                            .setMessage(cause.getMessage())
+                            .setId(request.getId())
                             .build();
-                    responseObserver.onNext(errorResponse);
                 }
+                requestLogger.failed("grpc-streaming", request.getId(), start, cause);
+                return PayloadResponse.newBuilder()
+                        .setStatus("error")
+                        .setMessage("Streaming processing failed: " + cause.getMessage())
+                        .setId(request.getId())
+                        .build();
             }
 
-            @Override
-            public void onError(Throwable t) {
-                logger.error("Error in streaming request", t);
-                responseObserver.onError(t);
-            }
+            requestLogger.completed("grpc-streaming", request.getId(), start, () -> result);
+            stageMetrics.record(PayloadStageMetrics.TOTAL, "gRPC-Streaming", start, null);
+            return PayloadResponse.newBuilder()
+                    .setStatus("success")
+                    .setMessage(result)
+                    .setId(request.getId())
+                    .build();
+        });
+    }
 
-            @Override
-            public void onCompleted() {
-                logger.info("Streaming request completed");
-                responseObserver.onCompleted();
-            }
-        };
+    // Shed by the concurrency limiter: no error log, payload.limit.rejected counts these
+    private void reject(StreamObserver<?> responseObserver, String protocol, long start, PayloadRejectedException rejected) {
+        stageMetrics.record(PayloadStageMetrics.TOTAL, protocol, start, rejected);
+        responseObserver.onError(Status.RESOURCE_EXHAUSTED
+                .withDescription(rejected.getMessage())
+                .asRuntimeException());
+    }
+
+    // Times response serialization and write (onNext) and closes the request's total
+    private <T> void respond(StreamObserver<T> responseObserver, T response, String protocol, long start, Throwable error) {
+        long respondStart = stageMetrics.start();
+        responseObserver.onNext(response);
+        responseObserver.onCompleted();
+        stageMetrics.record(PayloadStageMetrics.RESPOND, protocol, respondStart, error);
+        stageMetrics.record(PayloadStageMetrics.TOTAL, protocol, start, error);
     }
-} 
\ No newline at end of file
+}
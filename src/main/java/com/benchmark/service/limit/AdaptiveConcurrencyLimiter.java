@@ -0,0 +1,117 @@
+package com.benchmark.service.limit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Adaptive concurrency limit in front of payload processing, one {@link GradientLimit}
+ * per protocol so an overloaded REST ingress cannot starve gRPC or the other way round.
+ * Requests over the limit are rejected at once instead of queueing on Spanner and Kafka.
+ * <p>Enabled with {@code payload.limit.enabled}; exports {@code payload.limit.limit},
+ * {@code payload.limit.inflight} and {@code payload.limit.rejected} per protocol.
+ */
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+    private static final Permit UNLIMITED = new Permit(null, 0, 0);
+
+    @Value("${payload.limit.enabled:false}")
+    private boolean enabled;
+
+    @Value("${payload.limit.initial:50}")
+    private int initialLimit;
+
+    @Value("${payload.limit.min:10}")
+    private int minLimit;
+
+    @Value("${payload.limit.max:1000}")
+    private int maxLimit;
+
+    // Latency may rise this far above the baseline before the limit is reduced
+    @Value("${payload.limit.rtt-tolerance:1.5}")
+    private double rttTolerance;
+
+    @Value("${payload.limit.smoothing:0.2}")
+    private double smoothing;
+
+    @Value("${payload.limit.window-ms:100}")
+    private long windowMillis;
+
+    @Value("${payload.limit.window-min-samples:10}")
+    private int minWindowSamples;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, ProtocolLimit> limits = new ConcurrentHashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Takes a slot for a request of the given protocol; the permit must be released
+     * exactly once when processing finishes.
+     *
+     * @throws PayloadRejectedException if the protocol is at its limit
+     */
+    public Permit acquire(String protocol) {
+        if (!enabled) {
+            return UNLIMITED;
+        }
+        ProtocolLimit protocolLimit = limits.computeIfAbsent(protocol, ProtocolLimit::new);
+        int inflight = protocolLimit.limit.tryAcquire();
+        if (inflight < 0) {
+            protocolLimit.rejected.increment();
+            throw new PayloadRejectedException(protocol, protocolLimit.limit.getLimit());
+        }
+        return new Permit(protocolLimit.limit, System.nanoTime(), inflight);
+    }
+
+    public static final class Permit {
+        private final GradientLimit limit;
+        private final long startNanos;
+        private final int inflightAtStart;
+
+        private Permit(GradientLimit limit, long startNanos, int inflightAtStart) {
+            this.limit = limit;
+            this.startNanos = startNanos;
+            this.inflightAtStart = inflightAtStart;
+        }
+
+        public void release() {
+            if (limit != null) {
+                limit.release(System.nanoTime() - startNanos, inflightAtStart);
+            }
+        }
+    }
+
+    private final class ProtocolLimit {
+        private final GradientLimit limit;
+        private final Counter rejected;
+
+        private ProtocolLimit(String protocol) {
+            limit = new GradientLimit(initialLimit, minLimit, maxLimit, rttTolerance, smoothing,
+                    windowMillis, minWindowSamples);
+            Gauge.builder("payload.limit.limit", limit, GradientLimit::getLimit)
+                    .description("Current adaptive concurrency limit")
+                    .tag("protocol", protocol)
+                    .register(meterRegistry);
+            Gauge.builder("payload.limit.inflight", limit, GradientLimit::getInflight)
+                    .description("Payloads being processed under the limit")
+                    .tag("protocol", protocol)
+                    .register(meterRegistry);
+            rejected = Counter.builder("payload.limit.rejected")
+                    .description("Payloads rejected because the concurrency limit was reached")
+                    .tag("protocol", protocol)
+                    .register(meterRegistry);
+        }
+    }
+}
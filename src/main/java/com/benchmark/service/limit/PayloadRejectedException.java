@@ -0,0 +1,19 @@
+package com.benchmark.service.limit;
+
+/**
+ * Thrown, or used to fail the returned future, when a payload is shed because its
+ * protocol is at its concurrency limit. Adapters answer it with HTTP 429 or gRPC
+ * {@code RESOURCE_EXHAUSTED}.
+ */
+public class PayloadRejectedException extends RuntimeException {
+
+    public PayloadRejectedException(String protocol, int limit) {
+        super(protocol + " concurrency limit of " + limit + " reached, request rejected");
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        // Thrown on every shed request under overload; the stack trace carries no information
+        return this;
+    }
+}
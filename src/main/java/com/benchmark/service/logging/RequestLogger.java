@@ -0,0 +1,71 @@
+package com.benchmark.service.logging;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * One log line per request instead of one per processing step.
+ * <ul>
+ *   <li>Completed requests are logged at INFO for a sampled fraction only:
+ *       {@code request.logging.sample-rate.<route>}, falling back to
+ *       {@code request.logging.sample-rate}. The detail supplier is only evaluated for
+ *       sampled requests.</li>
+ *   <li>Requests slower than {@code request.logging.slow-threshold-ms} are always logged at WARN.</li>
+ *   <li>Failures are always logged at ERROR.</li>
+ * </ul>
+ */
+@Component
+public class RequestLogger {
+
+    private static final Logger logger = LoggerFactory.getLogger("com.benchmark.service.requests");
+
+    @Value("${request.logging.sample-rate:0.01}")
+    private double defaultSampleRate;
+
+    @Value("${request.logging.slow-threshold-ms:500}")
+    private long slowThresholdMs;
+
+    @Autowired
+    private Environment environment;
+
+    private final Map<String, Double> sampleRates = new ConcurrentHashMap<>();
+
+    public long start() {
+        return System.nanoTime();
+    }
+
+    public void completed(String route, String id, long startNanos, Supplier<String> detail) {
+        long elapsedNanos = System.nanoTime() - startNanos;
+        if (TimeUnit.NANOSECONDS.toMillis(elapsedNanos) >= slowThresholdMs) {
+            if (logger.isWarnEnabled()) {
+                logger.warn("Slow {} request {} took {} ms: {}", route, id, toMillis(elapsedNanos), detail.get());
+            }
+        } else if (logger.isInfoEnabled() && sampled(route)) {
+            logger.info("{} request {} completed in {} ms: {}", route, id, toMillis(elapsedNanos), detail.get());
+        }
+    }
+
+    public void failed(String route, String id, long startNanos, Throwable error) {
+        logger.error("{} request {} failed after {} ms", route, id, toMillis(System.nanoTime() - startNanos), error);
+    }
+
+    private boolean sampled(String route) {
+        double rate = sampleRates.computeIfAbsent(route, r ->
+                environment.getProperty("request.logging.sample-rate." + r, Double.class, defaultSampleRate));
+        return rate >= 1.0 || (rate > 0.0 && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+
+    private static String toMillis(long nanos) {
+        return String.format("%.1f", nanos / 1_000_000.0);
+    }
+}
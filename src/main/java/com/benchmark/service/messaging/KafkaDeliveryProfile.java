@@ -0,0 +1,59 @@
+package com.benchmark.service.messaging;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Named producer tunings, selected by {@code kafka.delivery.profile}.
+ * <ul>
+ *   <li>{@code low-latency} - send immediately ({@code linger.ms=0}), leader ack only, no compression.</li>
+ *   <li>{@code throughput} - linger to fill large compressed batches, leader ack only.</li>
+ *   <li>{@code durable} - idempotent producer with {@code acks=all}; no duplicates or reordering on retry.</li>
+ * </ul>
+ */
+public enum KafkaDeliveryProfile {
+    LOW_LATENCY,
+    THROUGHPUT,
+    DURABLE;
+
+    public static KafkaDeliveryProfile fromName(String name) {
+        return valueOf(name.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+    }
+
+    public String tagValue() {
+        return name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+
+    /**
+     * Producer settings for this profile. {@code lingerMs}, {@code batchSize} and
+     * {@code compression} only apply to {@link #THROUGHPUT}.
+     */
+    public Map<String, Object> producerConfigs(int lingerMs, int batchSize, String compression) {
+        Map<String, Object> configs = new HashMap<>();
+        switch (this) {
+            case LOW_LATENCY -> {
+                configs.put(ProducerConfig.LINGER_MS_CONFIG, 0);
+                configs.put(ProducerConfig.ACKS_CONFIG, "1");
+                configs.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, false);
+                configs.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "none");
+            }
+            case THROUGHPUT -> {
+                configs.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+                configs.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+                configs.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compression);
+                configs.put(ProducerConfig.ACKS_CONFIG, "1");
+                configs.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, false);
+            }
+            case DURABLE -> {
+                configs.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+                configs.put(ProducerConfig.ACKS_CONFIG, "all");
+                configs.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+                configs.put(ProducerConfig.RETRIES_CONFIG, Integer.MAX_VALUE);
+            }
+        }
+        return configs;
+    }
+}
@@ -0,0 +1,289 @@
+package com.benchmark.service.messaging;
+
+import com.benchmark.service.util.FutureUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes records through {@link KafkaTemplate} without blocking on the broker.
+ * At most {@code kafka.publisher.max-in-flight} sends are outstanding, so a slow cluster
+ * pushes back instead of filling the producer buffer. Over the limit {@link #publish} fails
+ * the future at once, as its callers are often transport or Spanner callback threads;
+ * {@link #publishBlocking}, for callers on their own thread, waits up to
+ * {@code kafka.publisher.acquire-timeout-ms} for a permit first.
+ * Every send is timed and counted per topic and delivery profile.
+ * <p>{@link #publish} sends go through a producer of their own with {@code max.block.ms} cut to
+ * {@code kafka.publisher.max-block-ms}, so missing metadata or a full buffer cannot hold the
+ * calling thread for the default minute; {@link #publishBlocking} and metadata look-ups keep the
+ * configured producer.
+ * <p>{@link #publishOrSpool} is for the ingest path: with {@code kafka.spool.enabled} a record
+ * the producer cannot take at once goes to the {@link KafkaSpool} instead of waiting. Those sends
+ * use the short-blocking producer as well.
+ * <p>Failed sends are counted in {@code kafka.publish.errors} and logged at most once per
+ * {@value #FAILURE_LOG_INTERVAL_SECONDS} seconds.
+ */
+@Component
+public class KafkaPayloadPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(KafkaPayloadPublisher.class);
+
+    private static final long FAILURE_LOG_INTERVAL_SECONDS = 10;
+    private static final long FAILURE_LOG_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(FAILURE_LOG_INTERVAL_SECONDS);
+
+    @Value("${kafka.publisher.max-in-flight:10000}")
+    private int maxInFlight;
+
+    @Value("${kafka.publisher.acquire-timeout-ms:1000}")
+    private long acquireTimeoutMs;
+
+    @Value("${kafka.publisher.max-block-ms:100}")
+    private long maxBlockMs;
+
+    @Autowired
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    @Autowired
+    private KafkaDeliveryProfile profile;
+
+    @Autowired
+    private KafkaSpool spool;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Semaphore inFlight;
+    private Counter rejectedSends;
+    private final Map<String, TopicMeters> topicMeters = new ConcurrentHashMap<>();
+    // Non-waiting and ingest sends; gives up after kafka.publisher.max-block-ms
+    private KafkaTemplate<String, byte[]> ingestTemplate;
+    private ProducerFactory<String, byte[]> ingestProducerFactory;
+    private final AtomicLong lastFailureLogNanos = new AtomicLong(System.nanoTime() - FAILURE_LOG_INTERVAL_NANOS);
+    private final AtomicLong unloggedFailures = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        inFlight = new Semaphore(maxInFlight);
+        rejectedSends = Counter.builder("kafka.publish.rejected")
+                .description("Sends rejected because the in-flight limit was reached")
+                .tag("profile", profile.tagValue())
+                .register(meterRegistry);
+        Gauge.builder("kafka.publish.inflight", inFlight, permits -> maxInFlight - permits.availablePermits())
+                .description("Kafka sends awaiting broker acknowledgement")
+                .tag("profile", profile.tagValue())
+                .register(meterRegistry);
+
+        // Fails the send (or falls over to the spool) quickly when metadata or buffer space is not available
+        ingestProducerFactory = kafkaTemplate.getProducerFactory().copyWithConfigurationOverride(
+                Map.of(ProducerConfig.MAX_BLOCK_MS_CONFIG, maxBlockMs,
+                        ProducerConfig.CLIENT_ID_CONFIG, "payload-" + profile.tagValue() + "-ingest"));
+        ingestTemplate = new KafkaTemplate<>(ingestProducerFactory);
+    }
+
+    @PreDestroy
+    public void close() throws Exception {
+        if (ingestProducerFactory instanceof DisposableBean disposable) {
+            disposable.destroy();
+        }
+    }
+
+    /**
+     * Sends the record and returns a future that completes when the broker acknowledges it
+     * (or the send fails). Callbacks attached to the future run per message. Never waits for
+     * an in-flight permit: without one the future fails at once. Blocks for at most
+     * {@code kafka.publisher.max-block-ms} on producer metadata or buffer space.
+     */
+    public CompletableFuture<SendResult<String, byte[]>> publish(ProducerRecord<String, byte[]> record) {
+        if (!inFlight.tryAcquire()) {
+            return limitReached(record);
+        }
+        return send(ingestTemplate, record, topicMeters.computeIfAbsent(record.topic(), TopicMeters::new));
+    }
+
+    /**
+     * Like {@link #publish}, but waits up to {@code kafka.publisher.acquire-timeout-ms} for an
+     * in-flight permit. Only for callers that run on a thread of their own and may block.
+     */
+    public CompletableFuture<SendResult<String, byte[]>> publishBlocking(ProducerRecord<String, byte[]> record) {
+        try {
+            if (!inFlight.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                return limitReached(record);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        }
+        return send(kafkaTemplate, record, topicMeters.computeIfAbsent(record.topic(), TopicMeters::new));
+    }
+
+    /**
+     * Like {@link #publish}, or {@link #publishBlocking} if {@code blocking}, but when the spool
+     * is enabled the record is spooled instead if earlier records are still spooled, no
+     * in-flight permit is free right away, or the send fails. A spooled record completes the
+     * future at once with a result without metadata; the future only fails when the spool is
+     * full as well.
+     * <p>Spooled records are replayed in the order they were spooled, but ordering against direct
+     * sends is best effort: a send that fails is spooled behind records sent after it, and sends
+     * still in flight when spooling starts can reach the broker before earlier spooled records.
+     */
+    public CompletableFuture<SendResult<String, byte[]>> publishOrSpool(ProducerRecord<String, byte[]> record,
+                                                                       boolean blocking) {
+        if (!spool.isEnabled()) {
+            return blocking ? publishBlocking(record) : publish(record);
+        }
+        if (spool.hasBacklog() || !inFlight.tryAcquire()) {
+            return spoolRecord(record, null);
+        }
+        TopicMeters meters = topicMeters.computeIfAbsent(record.topic(), TopicMeters::new);
+        return send(ingestTemplate, record, meters)
+                .exceptionallyCompose(error -> spoolRecord(record, FutureUtils.unwrap(error)));
+    }
+
+    // Caller holds an in-flight permit
+    private CompletableFuture<SendResult<String, byte[]>> send(KafkaTemplate<String, byte[]> template,
+                                                               ProducerRecord<String, byte[]> record, TopicMeters meters) {
+        long start = System.nanoTime();
+        CompletableFuture<SendResult<String, byte[]>> future;
+        try {
+            future = template.send(record);
+        } catch (Exception e) {
+            inFlight.release();
+            meters.failed(System.nanoTime() - start, e);
+            return CompletableFuture.failedFuture(e);
+        }
+        return future.whenComplete((result, error) -> {
+            inFlight.release();
+            long elapsed = System.nanoTime() - start;
+            if (error != null) {
+                Throwable cause = FutureUtils.unwrap(error);
+                meters.failed(elapsed, cause);
+                logFailure(record, cause);
+            } else {
+                meters.succeeded(elapsed, result);
+            }
+        });
+    }
+
+    // During an outage every record fails; one line per interval is enough next to the error counter
+    private void logFailure(ProducerRecord<String, byte[]> record, Throwable cause) {
+        long now = System.nanoTime();
+        long last = lastFailureLogNanos.get();
+        if (now - last >= FAILURE_LOG_INTERVAL_NANOS && lastFailureLogNanos.compareAndSet(last, now)) {
+            logger.warn("Kafka send to {} failed for key {}: {} ({} more failed sends in the last {} s)",
+                    record.topic(), record.key(), cause.getMessage(), unloggedFailures.getAndSet(0),
+                    FAILURE_LOG_INTERVAL_SECONDS);
+        } else {
+            unloggedFailures.incrementAndGet();
+        }
+    }
+
+    private CompletableFuture<SendResult<String, byte[]>> limitReached(ProducerRecord<String, byte[]> record) {
+        rejectedSends.increment();
+        return CompletableFuture.failedFuture(new RejectedExecutionException(
+                "Kafka in-flight limit reached (" + maxInFlight + ") for topic " + record.topic()));
+    }
+
+    private CompletableFuture<SendResult<String, byte[]>> spoolRecord(ProducerRecord<String, byte[]> record, Throwable cause) {
+        if (spool.offer(record)) {
+            return CompletableFuture.completedFuture(new SendResult<>(record, null));
+        }
+        rejectedSends.increment();
+        return CompletableFuture.failedFuture(cause != null ? cause : new RejectedExecutionException(
+                "Kafka producer saturated and spool full for topic " + record.topic()));
+    }
+
+    public void flush() {
+        kafkaTemplate.flush();
+    }
+
+    /**
+     * Partitions of the topic, fetching and caching the producers' metadata for it if needed.
+     * The ingest producer is asked second, once the broker has answered within the default
+     * {@code max.block.ms}, so its short timeout does not fail the look-up.
+     */
+    public List<PartitionInfo> partitionsFor(String topic) {
+        List<PartitionInfo> partitions = kafkaTemplate.partitionsFor(topic);
+        try {
+            ingestTemplate.partitionsFor(topic);
+        } catch (RuntimeException e) {
+            logger.debug("Ingest producer metadata for {} not fetched yet: {}", topic, e.getMessage());
+        }
+        return partitions;
+    }
+
+    public KafkaDeliveryProfile getProfile() {
+        return profile;
+    }
+
+    private final class TopicMeters {
+        private final String topic;
+        private final Timer success;
+        private final Timer failure;
+        private final DistributionSummary recordBytes;
+
+        private TopicMeters(String topic) {
+            this.topic = topic;
+            this.success = sendTimer(topic, "success");
+            this.failure = sendTimer(topic, "failure");
+            this.recordBytes = DistributionSummary.builder("kafka.publish.record.bytes")
+                    .description("Serialized value size of published records")
+                    .baseUnit("bytes")
+                    .tag("topic", topic)
+                    .tag("profile", profile.tagValue())
+                    .register(meterRegistry);
+        }
+
+        private Timer sendTimer(String topic, String outcome) {
+            return Timer.builder("kafka.publish")
+                    .description("Time from send to broker acknowledgement")
+                    .tag("topic", topic)
+                    .tag("profile", profile.tagValue())
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+
+        private void succeeded(long elapsedNanos, SendResult<String, byte[]> result) {
+            success.record(elapsedNanos, TimeUnit.NANOSECONDS);
+            if (result.getRecordMetadata() != null) {
+                recordBytes.record(result.getRecordMetadata().serializedValueSize());
+            }
+        }
+
+        private void failed(long elapsedNanos, Throwable error) {
+            failure.record(elapsedNanos, TimeUnit.NANOSECONDS);
+            Counter.builder("kafka.publish.errors")
+                    .description("Failed Kafka sends by cause")
+                    .tag("topic", topic)
+                    .tag("profile", profile.tagValue())
+                    .tag("exception", error.getClass().getSimpleName())
+                    .register(meterRegistry)
+                    .increment();
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.benchmark.service.messaging;
+
+import com.benchmark.service.util.MappedAppendLog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Local spool for Kafka records the producer cannot take right now. Records are appended to a
+ * {@link MappedAppendLog} of at most {@code kafka.spool.max-bytes} at {@code kafka.spool.path}
+ * and later replayed in order by {@link KafkaSpoolReplayer}; records left behind by a crash
+ * are replayed after the restart.
+ * <p>Enabled with {@code kafka.spool.enabled}; exports {@code kafka.spool.depth} (records),
+ * {@code kafka.spool.bytes}, {@code kafka.spool.appended}, {@code kafka.spool.replayed} and
+ * {@code kafka.spool.overflow} (records refused because the spool was full).
+ */
+@Component
+public class KafkaSpool {
+
+    private static final Logger logger = LoggerFactory.getLogger(KafkaSpool.class);
+
+    @Value("${kafka.spool.enabled:false}")
+    private boolean enabled;
+
+    @Value("${kafka.spool.path:spool/kafka.spool}")
+    private String path;
+
+    @Value("${kafka.spool.max-bytes:268435456}")
+    private int maxBytes;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private MappedAppendLog log;
+    private Counter appended;
+    private Counter replayed;
+    private Counter overflow;
+
+    @PostConstruct
+    public void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        log = MappedAppendLog.open(Path.of(path), maxBytes);
+        appended = Counter.builder("kafka.spool.appended")
+                .description("Kafka records written to the local spool")
+                .register(meterRegistry);
+        replayed = Counter.builder("kafka.spool.replayed")
+                .description("Spooled Kafka records delivered to the broker")
+                .register(meterRegistry);
+        overflow = Counter.builder("kafka.spool.overflow")
+                .description("Kafka records refused because the spool was full")
+                .register(meterRegistry);
+        Gauge.builder("kafka.spool.depth", log, MappedAppendLog::size)
+                .description("Kafka records waiting in the spool")
+                .register(meterRegistry);
+        Gauge.builder("kafka.spool.bytes", log, MappedAppendLog::usedBytes)
+                .description("Spool space held by waiting records")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        logger.info("Kafka spool {} opened: capacity={} bytes, {} records to replay", path, log.capacity(), log.size());
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (log != null) {
+            log.close();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * True while spooled records are waiting; new ingest records then queue behind them
+     * instead of overtaking them.
+     */
+    public boolean hasBacklog() {
+        return enabled && !log.isEmpty();
+    }
+
+    /**
+     * Appends the record; false when the spool is full.
+     */
+    public boolean offer(ProducerRecord<String, byte[]> record) {
+        if (log.append(encode(record))) {
+            appended.increment();
+            return true;
+        }
+        overflow.increment();
+        return false;
+    }
+
+    List<MappedAppendLog.Entry> read(int max) {
+        return log.read(max);
+    }
+
+    void commit(MappedAppendLog.Entry last, int count) {
+        log.commit(last);
+        replayed.increment(count);
+    }
+
+    void force() {
+        log.force();
+    }
+
+    // topic, key, timestamp, headers, value; the partition is left to the partitioner on replay
+    static byte[] encode(ProducerRecord<String, byte[]> record) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + record.value().length);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeUTF(record.topic());
+            out.writeBoolean(record.key() != null);
+            if (record.key() != null) {
+                out.writeUTF(record.key());
+            }
+            out.writeLong(record.timestamp() != null ? record.timestamp() : System.currentTimeMillis());
+            Header[] headers = record.headers().toArray();
+            out.writeShort(headers.length);
+            for (Header header : headers) {
+                out.writeUTF(header.key());
+                byte[] value = header.value();
+                out.writeInt(value != null ? value.length : -1);
+                if (value != null) {
+                    out.write(value);
+                }
+            }
+            out.writeInt(record.value().length);
+            out.write(record.value());
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static ProducerRecord<String, byte[]> decode(byte[] data) {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+            String topic = in.readUTF();
+            String key = in.readBoolean() ? in.readUTF() : null;
+            long timestamp = in.readLong();
+            int headerCount = in.readUnsignedShort();
+            String[] headerKeys = new String[headerCount];
+            byte[][] headerValues = new byte[headerCount][];
+            for (int i = 0; i < headerCount; i++) {
+                headerKeys[i] = in.readUTF();
+                int length = in.readInt();
+                headerValues[i] = length >= 0 ? in.readNBytes(length) : null;
+            }
+            byte[] value = in.readNBytes(in.readInt());
+            ProducerRecord<String, byte[]> record = new ProducerRecord<>(topic, null, timestamp, key, value);
+            for (int i = 0; i < headerCount; i++) {
+                record.headers().add(headerKeys[i], headerValues[i]);
+            }
+            return record;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
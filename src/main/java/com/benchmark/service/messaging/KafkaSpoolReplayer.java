@@ -0,0 +1,114 @@
+package com.benchmark.service.messaging;
+
+import com.benchmark.service.util.MappedAppendLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Drains the {@link KafkaSpool} to Kafka in order. Every {@code kafka.spool.replay-interval-ms}
+ * it sends batches of {@code kafka.spool.replay-batch-size} records through the publisher's
+ * in-flight limit and consumes the acknowledged prefix of each batch; the rest is sent again on
+ * the next pass, so delivery is at-least-once. While the broker is still struggling the sends
+ * fail or time out and the records simply stay spooled.
+ */
+@Component
+public class KafkaSpoolReplayer {
+
+    private static final Logger logger = LoggerFactory.getLogger(KafkaSpoolReplayer.class);
+
+    @Value("${kafka.spool.replay-batch-size:500}")
+    private int batchSize;
+
+    @Value("${kafka.spool.replay-interval-ms:100}")
+    private long intervalMs;
+
+    @Value("${kafka.spool.replay-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    @Autowired
+    private KafkaSpool spool;
+
+    @Autowired
+    private KafkaPayloadPublisher kafkaPublisher;
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void start() {
+        if (!spool.isEnabled()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "kafka-spool-replay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::replayPending, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        logger.info("Kafka spool replayer started: batchSize={}, intervalMs={}", batchSize, intervalMs);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
+    private void replayPending() {
+        try {
+            // Keep draining while whole batches get through
+            int replayed;
+            do {
+                replayed = replayBatch();
+            } while (replayed == batchSize);
+            spool.force();
+        } catch (Exception e) {
+            logger.warn("Kafka spool replay pass failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private int replayBatch() throws InterruptedException {
+        List<MappedAppendLog.Entry> entries = spool.read(batchSize);
+        if (entries.isEmpty()) {
+            return 0;
+        }
+        List<CompletableFuture<?>> sends = new ArrayList<>(entries.size());
+        for (MappedAppendLog.Entry entry : entries) {
+            sends.add(kafkaPublisher.publishBlocking(KafkaSpool.decode(entry.data())));
+        }
+        kafkaPublisher.flush();
+
+        try {
+            CompletableFuture.allOf(sends.toArray(new CompletableFuture[0])).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            // The publisher already reports failed sends, throttled; this repeats every pass
+            logger.debug("Spooled Kafka records not acknowledged, will retry: {}", e.getMessage());
+        }
+
+        // Only the acknowledged prefix is consumed, so the spool stays in order
+        int acknowledged = 0;
+        while (acknowledged < sends.size()
+                && sends.get(acknowledged).isDone()
+                && !sends.get(acknowledged).isCompletedExceptionally()) {
+            acknowledged++;
+        }
+        if (acknowledged > 0) {
+            spool.commit(entries.get(acknowledged - 1), acknowledged);
+        }
+        return acknowledged;
+    }
+}
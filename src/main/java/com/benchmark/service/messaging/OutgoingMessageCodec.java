@@ -0,0 +1,83 @@
+package com.benchmark.service.messaging;
+
+import com.benchmark.service.dto.OutgoingMqMessage;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Encodes {@link OutgoingMqMessage} for Kafka as JSON or as a {@link PayloadNotification}
+ * protobuf, selected by {@code kafka.message.format}. Every record carries a
+ * {@code content-type} header so consumers can decode both formats during migration.
+ */
+@Component
+public class OutgoingMessageCodec {
+
+    public static final String CONTENT_TYPE_HEADER = "content-type";
+    public static final String JSON_CONTENT_TYPE = "application/json";
+    public static final String PROTOBUF_CONTENT_TYPE = "application/x-protobuf";
+
+    public enum Format { JSON, PROTO }
+
+    @Value("${kafka.message.format:json}")
+    private String formatName;
+
+    private final ObjectMapper objectMapper;
+    private Format format;
+
+    @Autowired
+    public OutgoingMessageCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    public void init() {
+        format = Format.valueOf(formatName.trim().toUpperCase(Locale.ROOT));
+    }
+
+    public byte[] encode(OutgoingMqMessage message) throws JsonProcessingException {
+        return encode(message, format);
+    }
+
+    public byte[] encode(OutgoingMqMessage message, Format format) throws JsonProcessingException {
+        if (format == Format.JSON) {
+            return objectMapper.writeValueAsBytes(message);
+        }
+        PayloadNotification.Builder notification = PayloadNotification.newBuilder()
+                .setUserId(nullToEmpty(message.getUserId()))
+                .setUserName(nullToEmpty(message.getUserName()))
+                .setNotificationType(nullToEmpty(message.getNotificationType()))
+                .setCorrelationId(nullToEmpty(message.getCorrelationId()))
+                .setProtocol(nullToEmpty(message.getProtocol()))
+                .setTimestamp(nullToEmpty(message.getTimestamp()));
+        if (message.getProcessingStartTime() != null) {
+            notification.setProcessingStartTime(message.getProcessingStartTime());
+        }
+        return notification.build().toByteArray();
+    }
+
+    public String getContentType() {
+        return contentType(format);
+    }
+
+    public static String contentType(Format format) {
+        return format == Format.JSON ? JSON_CONTENT_TYPE : PROTOBUF_CONTENT_TYPE;
+    }
+
+    public static ProducerRecord<String, byte[]> record(String topic, String key, byte[] value, String contentType) {
+        ProducerRecord<String, byte[]> record = new ProducerRecord<>(topic, key, value);
+        record.headers().add(CONTENT_TYPE_HEADER, contentType.getBytes(StandardCharsets.UTF_8));
+        return record;
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
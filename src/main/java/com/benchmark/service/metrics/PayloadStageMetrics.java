@@ -0,0 +1,63 @@
+package com.benchmark.service.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of each pipeline stage as {@code payload.stage} timers with percentile histograms,
+ * tagged by {@code stage}, {@code protocol} and {@code outcome}.
+ * <ul>
+ *   <li>{@code deserialize} - request body bound to an object (REST only; gRPC parses in the transport)</li>
+ *   <li>{@code prepare} - mapping to the entity and encoding the Kafka message</li>
+ *   <li>{@code spanner} - Spanner commit</li>
+ *   <li>{@code kafka} - Kafka send until broker acknowledgement</li>
+ *   <li>{@code store} - write to a local backend (ring buffer, or journal until group commit)</li>
+ *   <li>{@code respond} - response encoding and write</li>
+ *   <li>{@code total} - request received to response written, per protocol adapter</li>
+ * </ul>
+ */
+@Component
+public class PayloadStageMetrics {
+
+    public static final String DESERIALIZE = "deserialize";
+    public static final String PREPARE = "prepare";
+    public static final String SPANNER = "spanner";
+    public static final String KAFKA = "kafka";
+    public static final String STORE = "store";
+    public static final String RESPOND = "respond";
+    public static final String TOTAL = "total";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public long start() {
+        return System.nanoTime();
+    }
+
+    public void record(String stage, String protocol, long startNanos, Throwable error) {
+        recordNanos(stage, protocol, System.nanoTime() - startNanos, error);
+    }
+
+    public void recordNanos(String stage, String protocol, long elapsedNanos, Throwable error) {
+        String outcome = error == null ? "success" : "failure";
+        timers.computeIfAbsent(stage + '|' + protocol + '|' + outcome, key -> Timer.builder("payload.stage")
+                        .description("Latency of a payload pipeline stage")
+                        .tag("stage", stage)
+                        .tag("protocol", protocol)
+                        .tag("outcome", outcome)
+                        .publishPercentileHistogram()
+                        .minimumExpectedValue(Duration.ofNanos(50_000))
+                        .maximumExpectedValue(Duration.ofSeconds(30))
+                        .register(meterRegistry))
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+}
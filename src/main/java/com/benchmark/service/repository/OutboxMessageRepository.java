@@ -0,0 +1,9 @@
+package com.benchmark.service.repository;
+
+import com.benchmark.service.entity.OutboxMessageEntity;
+import com.google.cloud.spring.data.spanner.repository.SpannerRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OutboxMessageRepository extends SpannerRepository<OutboxMessageEntity, String> {
+}
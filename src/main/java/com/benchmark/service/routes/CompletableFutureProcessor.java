@@ -0,0 +1,56 @@
+package com.benchmark.service.routes;
+
+import com.benchmark.service.util.FutureUtils;
+import org.apache.camel.AsyncCallback;
+import org.apache.camel.Exchange;
+import org.apache.camel.support.AsyncProcessorSupport;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Runs a step that returns a CompletableFuture on Camel's asynchronous routing engine,
+ * so the consumer thread is not held while the future is pending.
+ */
+public class CompletableFutureProcessor extends AsyncProcessorSupport {
+
+    private final Function<Exchange, CompletableFuture<?>> step;
+
+    public CompletableFutureProcessor(Function<Exchange, CompletableFuture<?>> step) {
+        this.step = step;
+    }
+
+    @Override
+    public boolean process(Exchange exchange, AsyncCallback callback) {
+        CompletableFuture<?> future;
+        try {
+            future = step.apply(exchange);
+        } catch (Exception e) {
+            exchange.setException(e);
+            callback.done(true);
+            return true;
+        }
+
+        if (future.isDone()) {
+            complete(exchange, future);
+            callback.done(true);
+            return true;
+        }
+
+        future.whenComplete((result, error) -> {
+            if (error != null) {
+                exchange.setException(FutureUtils.unwrap(error));
+            }
+            callback.done(false);
+        });
+        return false;
+    }
+
+    private void complete(Exchange exchange, CompletableFuture<?> future) {
+        try {
+            future.join();
+        } catch (Exception e) {
+            exchange.setException(FutureUtils.unwrap(e));
+        }
+    }
+}
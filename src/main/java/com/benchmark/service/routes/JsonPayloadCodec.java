@@ -0,0 +1,59 @@
+package com.benchmark.service.routes;
+
+import com.benchmark.service.dto.InputPayload;
+import com.benchmark.service.dto.PayloadResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * JSON binding for the REST payload routes when {@code rest.json.binding=fast}.
+ * <p>Readers and writers are built once per type from the application {@link ObjectMapper}
+ * (which carries the Blackbird module, so property access is generated rather than
+ * reflective), the request is parsed straight from the body stream and responses are
+ * written compact into a single byte array that the transport sends as-is. With the
+ * default {@code camel} binding, {@link RestPayloadBinding} uses Camel's Jackson data format.
+ */
+@Component
+public class JsonPayloadCodec {
+
+    @Value("${rest.json.binding:camel}")
+    private String binding;
+
+    private final ObjectReader payloadReader;
+    private final ObjectWriter payloadWriter;
+    private final ObjectWriter responseWriter;
+
+    @Autowired
+    public JsonPayloadCodec(ObjectMapper objectMapper) {
+        this.payloadReader = objectMapper.readerFor(InputPayload.class);
+        this.payloadWriter = objectMapper.writerFor(InputPayload.class).without(SerializationFeature.INDENT_OUTPUT);
+        this.responseWriter = objectMapper.writerFor(PayloadResponse.class).without(SerializationFeature.INDENT_OUTPUT);
+    }
+
+    /**
+     * Whether JSON should be bound through this codec instead of Camel's data format.
+     */
+    public boolean isEnabled() {
+        return "fast".equals(binding);
+    }
+
+    public InputPayload readPayload(InputStream body) throws IOException {
+        return payloadReader.readValue(body);
+    }
+
+    public byte[] writePayload(InputPayload payload) throws IOException {
+        return payloadWriter.writeValueAsBytes(payload);
+    }
+
+    public byte[] writeResponse(PayloadResponse response) throws IOException {
+        return responseWriter.writeValueAsBytes(response);
+    }
+}
@@ -1,35 +1,104 @@
 package com.benchmark.service.routes;
 
+import com.benchmark.service.config.ExecutionModeConfig;
+import com.benchmark.service.config.GrpcTransportConfig;
 import com.benchmark.service.dto.InputPayload;
-import com.benchmark.service.dto.PayloadResponse;
-import com.benchmark.service.service.TransactionalPayloadService;
+import com.benchmark.service.limit.PayloadRejectedException;
+import com.benchmark.service.logging.RequestLogger;
+import com.benchmark.service.metrics.PayloadStageMetrics;
+import com.benchmark.service.service.PayloadProcessor;
+import com.benchmark.service.service.PayloadQueryService;
+import com.benchmark.service.util.FutureUtils;
 import com.benchmark.service.util.GrpcPayloadConverter;
+import io.grpc.Status;
 import org.apache.camel.Exchange;
 import org.apache.camel.builder.RouteBuilder;
 import org.apache.camel.model.rest.RestBindingMode;
+import org.apache.camel.model.rest.RestConfigurationDefinition;
+import org.apache.camel.support.SynchronizationAdapter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 @Component
 public class PayloadRouteBuilder extends RouteBuilder {
 
     private static final Logger logger = LoggerFactory.getLogger(PayloadRouteBuilder.class);
 
+    private static final String SERVICE_DONE_PROPERTY = "payloadServiceDoneNanos";
+
+    private static final String HTTP_2 = "HTTP/2.0";
+
+    @Autowired
+    private PayloadProcessor payloadService;
+
+    @Autowired
+    private PayloadQueryService queryService;
+
+    @Autowired
+    private RequestLogger requestLogger;
+
     @Autowired
-    private TransactionalPayloadService payloadService;
+    private PayloadStageMetrics stageMetrics;
+
+    @Autowired
+    private GrpcTransportConfig transport;
+
+    @Autowired
+    private ExecutionModeConfig executionMode;
+
+    @Autowired
+    private RestPayloadBinding payloadBinding;
+
+    @Value("${rest.transport:servlet}")
+    private String restTransport;
+
+    @Value("${rest.netty.port:8081}")
+    private int nettyPort;
+
+    // 0 lets Netty pick 2 * available processors
+    @Value("${rest.netty.worker-count:0}")
+    private int nettyWorkerCount;
+
+    // auto: off the event loop unless the payload pipeline is non-blocking
+    @Value("${rest.netty.use-executor:auto}")
+    private String nettyUseExecutor;
+
+    @Value("${payload.pipeline.async:false}")
+    private boolean asyncPipeline;
 
     @Override
     public void configure() throws Exception {
         
-        // Configure REST component to use servlet
-        restConfiguration()
-            .component("servlet")
-            .bindingMode(RestBindingMode.json)
-            .dataFormatProperty("prettyPrint", "true")
-            .contextPath("/")
-            .port(8080);
+        // REST transport: servlet (Tomcat, /camel/* on 8080) or netty-http (event loops, same
+        // path on rest.netty.port) so the same k6 scenarios can target either
+        // Bodies are bound in the routes by RestPayloadBinding, which negotiates JSON or protobuf per request
+        RestConfigurationDefinition rest = restConfiguration()
+            .bindingMode(RestBindingMode.off);
+        if ("netty-http".equals(restTransport)) {
+            boolean useExecutor = nettyUsesExecutor();
+            rest.component("netty-http")
+                .host("0.0.0.0")
+                .port(nettyPort)
+                .contextPath("/camel")
+                .endpointProperty("keepAlive", "true")
+                .endpointProperty("tcpNoDelay", "true")
+                .endpointProperty("reuseAddress", "true")
+                .endpointProperty("workerCount", String.valueOf(nettyWorkerCount))
+                .endpointProperty("usingExecutorService", String.valueOf(useExecutor));
+            logger.info("REST served by netty-http on port {} (workers={}, executor={})",
+                nettyPort, nettyWorkerCount == 0 ? "default" : nettyWorkerCount, useExecutor);
+        } else {
+            rest.component("servlet")
+                .contextPath("/")
+                .port(8080);
+        }
 
         // Health endpoint - direct route
         from("direct:health")
@@ -40,47 +109,193 @@ public class PayloadRouteBuilder extends RouteBuilder {
         // Direct route for processing payloads
         from("direct:processPayloadRest")
             .routeId("process-payload-rest-route")
-            .log("Processing REST payload: ${body}")
-            .process(exchange -> {
-                InputPayload payload = exchange.getIn().getBody(InputPayload.class);
-                String result = payloadService.processPayload(payload, "REST");
-                PayloadResponse response = new PayloadResponse("success", result);
-                exchange.getIn().setBody(response);
-            });
-
-        // REST endpoints using servlet component
+            .process(new CompletableFutureProcessor(exchange -> {
+                long readStart = System.nanoTime();
+                Object body;
+                try {
+                    body = payloadBinding.readPayload(exchange);
+                } catch (IOException e) {
+                    exchange.getIn().setHeader(Exchange.HTTP_RESPONSE_CODE, 400);
+                    payloadBinding.writeResponse(exchange, "error", "Malformed payload: " + e.getMessage());
+                    return CompletableFuture.completedFuture(null);
+                }
+                long deserializeNanos = System.nanoTime() - readStart;
+
+                // Protobuf bodies and HTTP/2 requests get their own metrics protocol so the
+                // encodings and HTTP versions can be compared
+                String protocol;
+                String id;
+                CompletableFuture<String> processing;
+                long start = requestLogger.start();
+                if (body instanceof com.benchmark.service.grpc.InputPayload proto) {
+                    protocol = "REST-Protobuf";
+                    id = proto.getId();
+                    processing = payloadService.processPayloadAsync(proto, "REST");
+                } else {
+                    InputPayload payload = (InputPayload) body;
+                    protocol = "REST";
+                    id = payload.getId();
+                    processing = payloadService.processPayloadAsync(payload, "REST");
+                }
+                if (HTTP_2.equals(exchange.getIn().getHeader(Exchange.HTTP_PROTOCOL_VERSION, String.class))) {
+                    protocol += "-H2C";
+                }
+                stageMetrics.recordNanos(PayloadStageMetrics.DESERIALIZE, protocol, deserializeNanos, null);
+                trackResponse(exchange, protocol, start - deserializeNanos);
+                return processing
+                    .whenComplete((result, error) -> logOutcome("rest", id, start, result, error))
+                    .handle((result, error) -> {
+                        Throwable cause = error == null ? null : FutureUtils.unwrap(error);
+                        if (cause != null && !(cause instanceof PayloadRejectedException)) {
+                            throw new CompletionException(cause);
+                        }
+                        // Set first so the respond stage includes the response encoding
+                        exchange.setProperty(SERVICE_DONE_PROPERTY, System.nanoTime());
+                        if (cause != null) {
+                            // Shed by the concurrency limiter
+                            exchange.getIn().setHeader(Exchange.HTTP_RESPONSE_CODE, 429);
+                            payloadBinding.writeResponse(exchange, "rejected", cause.getMessage());
+                        } else {
+                            payloadBinding.writeResponse(exchange, "success", result);
+                        }
+                        return null;
+                    });
+            }));
+
+        // Look-up by ID through the read cache
+        from("direct:getPayloadRest")
+            .routeId("get-payload-rest-route")
+            .process(new CompletableFutureProcessor(exchange -> {
+                String id = exchange.getIn().getHeader("id", String.class);
+                // A cache miss reads Spanner, which must not block a Netty event loop
+                return CompletableFuture.supplyAsync(() -> queryService.findById(id), executionMode.getWorkerExecutor())
+                    .thenAccept(payload -> {
+                        if (payload.isPresent()) {
+                            payloadBinding.writePayload(exchange, payload.get());
+                        } else {
+                            exchange.getIn().setHeader(Exchange.HTTP_RESPONSE_CODE, 404);
+                            payloadBinding.writeResponse(exchange, "error", "No payload with ID " + id);
+                        }
+                    });
+            }));
+
+        // REST endpoints
         rest("/api")
             .post("/payload")
                 .type(InputPayload.class)
-                .produces("application/json")
+                .consumes("application/json,application/x-protobuf")
+                .produces("application/json,application/x-protobuf")
                 .to("direct:processPayloadRest")
+            .get("/payload/{id}")
+                .produces("application/json,application/x-protobuf")
+                .to("direct:getPayloadRest")
             .get("/health")
                 .produces("application/json") 
                 .to("direct:health");
 
-        // gRPC endpoint with transactional service integration
-        from("grpc://0.0.0.0:6565/com.benchmark.service.grpc.PayloadService?method=SendPayload")
+        // gRPC endpoint with transactional service integration; ServerInterceptor beans
+        // (GrpcMetricsInterceptor) are attached through autoDiscoverServerInterceptors and
+        // the transport options Camel supports come from the grpc.transport.* profile
+        from("grpc://0.0.0.0:6565/com.benchmark.service.grpc.PayloadService?method=SendPayload&autoDiscoverServerInterceptors=true"
+                + transport.camelEndpointOptions())
             .routeId("grpc-payload-route-transactional")
-            .process(exchange -> {
+            .process(new CompletableFutureProcessor(exchange -> {
+                // The consumer serves every PayloadService method; batches arrive as InputPayloadBatch
+                if (exchange.getIn().getBody() instanceof com.benchmark.service.grpc.InputPayloadBatch batch) {
+                    return resourceExhaustedOnRejection(payloadService.processPayloadBatchAsync(GrpcPayloadConverter.fromProto(batch), "gRPC")
+                        .thenAccept(results -> exchange.getIn().setBody(GrpcPayloadConverter.toBatchResponse(batch, results))));
+                }
+
+                if (exchange.getIn().getBody() instanceof com.benchmark.service.grpc.PayloadLookup lookup) {
+                    // A cache miss reads Spanner, which must not block the gRPC consumer thread
+                    return CompletableFuture.supplyAsync(() -> queryService.findById(lookup.getId()), executionMode.getWorkerExecutor())
+                        .thenAccept(payload -> exchange.getIn().setBody(payload
+                            .map(GrpcPayloadConverter::toProto)
+                            .orElseThrow(() -> Status.NOT_FOUND
+                                .withDescription("No payload with ID " + lookup.getId())
+                                .asRuntimeException())));
+                }
+
                 com.benchmark.service.grpc.InputPayload proto = exchange.getIn().getBody(com.benchmark.service.grpc.InputPayload.class);
-                
-                // Convert protobuf to DTO
-                InputPayload payload = new InputPayload();
-                payload.setId(proto.getId());
-                payload.setContent(proto.getContent());
-                payload.setTimestamp(proto.getTimestamp());
-                payload.setProtocol(proto.getProtocol());
-
-                // Use the transactional service
-                String result = payloadService.processPayload(payload, "gRPC");
-                
-                // Return response with correlation ID
-                com.benchmark.service.grpc.PayloadResponse response = com.benchmark.service.grpc.PayloadResponse.newBuilder()
-                    .setStatus("success")
-                    .setMessage(result)
-                    .build();
-                exchange.getIn().setBody(response);
-            })
-            .log("gRPC payload processed successfully");
+
+                // Use the transactional service; the proto is mapped without an intermediate DTO
+                long start = requestLogger.start();
+                trackResponse(exchange, "gRPC", start);
+                return resourceExhaustedOnRejection(payloadService.processPayloadAsync(proto, "gRPC")
+                    .whenComplete((result, error) -> logOutcome("camel-grpc", proto.getId(), start, result, error))
+                    .thenAccept(result -> {
+                        // Return response with correlation ID
+                        com.benchmark.service.grpc.PayloadResponse response = com.benchmark.service.grpc.PayloadResponse.newBuilder()
+                            .setStatus("success")
+                            .setMessage(result)
+                            .build();
+                        exchange.getIn().setBody(response);
+                        exchange.setProperty(SERVICE_DONE_PROPERTY, System.nanoTime());
+                    }));
+            }));
+    }
+
+    /**
+     * Whether netty-http hands requests to its executor instead of running them on the event
+     * loop. Only a non-blocking pipeline (async, or blocking work moved to the offload pool)
+     * may stay on the event loop; turning the executor off for any other is refused.
+     */
+    private boolean nettyUsesExecutor() {
+        boolean pipelineBlocks = !asyncPipeline && executionMode.getOffloadExecutor() == null;
+        if ("auto".equals(nettyUseExecutor)) {
+            return pipelineBlocks;
+        }
+        boolean useExecutor = Boolean.parseBoolean(nettyUseExecutor);
+        if (!useExecutor && pipelineBlocks) {
+            throw new IllegalStateException("rest.netty.use-executor=false would run the blocking payload pipeline"
+                + " on Netty event loops; set payload.pipeline.async=true, payload.execution.mode=offload"
+                + " or rest.netty.use-executor=auto");
+        }
+        return useExecutor;
+    }
+
+    /**
+     * Records the respond stage (service result to exchange completion, which covers the
+     * response binding and write) and the total for the exchange once Camel is done with it.
+     */
+    private void trackResponse(Exchange exchange, String protocol, long start) {
+        exchange.getExchangeExtension().addOnCompletion(new SynchronizationAdapter() {
+            @Override
+            public void onDone(Exchange done) {
+                long now = System.nanoTime();
+                Throwable error = done.getException();
+                Long serviceDone = done.getProperty(SERVICE_DONE_PROPERTY, Long.class);
+                if (serviceDone != null) {
+                    stageMetrics.recordNanos(PayloadStageMetrics.RESPOND, protocol, now - serviceDone, error);
+                }
+                stageMetrics.recordNanos(PayloadStageMetrics.TOTAL, protocol, now - start, error);
+            }
+        });
+    }
+
+    /**
+     * The Camel gRPC consumer passes the exchange exception to {@code onError}, so a shed
+     * request has to fail with a {@code RESOURCE_EXHAUSTED} status rather than UNKNOWN.
+     */
+    private static CompletableFuture<Void> resourceExhaustedOnRejection(CompletableFuture<Void> processing) {
+        return processing.exceptionally(error -> {
+            Throwable cause = FutureUtils.unwrap(error);
+            if (cause instanceof PayloadRejectedException) {
+                throw Status.RESOURCE_EXHAUSTED.withDescription(cause.getMessage()).asRuntimeException();
+            }
+            throw new CompletionException(cause);
+        });
+    }
+
+    private void logOutcome(String route, String id, long start, String result, Throwable error) {
+        if (error != null) {
+            Throwable cause = FutureUtils.unwrap(error);
+            // Shed requests are counted by payload.limit.rejected, not logged one by one
+            if (!(cause instanceof PayloadRejectedException)) {
+                requestLogger.failed(route, id, start, cause);
+            }
+        } else {
+            requestLogger.completed(route, id, start, () -> result);
+        }
     }
 }
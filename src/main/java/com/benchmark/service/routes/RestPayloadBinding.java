@@ -0,0 +1,153 @@
+package com.benchmark.service.routes;
+
+import com.benchmark.service.dto.InputPayload;
+import com.benchmark.service.dto.PayloadResponse;
+import com.benchmark.service.entity.InputPayloadEntity;
+import com.benchmark.service.messaging.OutgoingMessageCodec;
+import com.benchmark.service.util.GrpcPayloadConverter;
+import com.benchmark.service.util.PayloadMapper;
+import com.google.protobuf.MessageLite;
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.RuntimeCamelException;
+import org.apache.camel.component.jackson.JacksonDataFormat;
+import org.apache.camel.support.service.ServiceHelper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Request and response bodies of the REST payload routes, negotiated per request so JSON
+ * and protobuf can be compared over the same HTTP transport.
+ * <ul>
+ *   <li>{@code Content-Type: application/x-protobuf} requests are parsed as the generated
+ *       {@code grpc.InputPayload}; anything else is JSON.</li>
+ *   <li>Responses are protobuf when {@code Accept} names {@code application/x-protobuf},
+ *       JSON when it names JSON, and otherwise follow the request format.</li>
+ *   <li>JSON goes through Camel's Jackson data format (what {@code RestBindingMode.json}
+ *       uses), or through {@link JsonPayloadCodec} when {@code rest.json.binding=fast}.</li>
+ * </ul>
+ */
+@Component
+public class RestPayloadBinding {
+
+    public static final String PROTOBUF_CONTENT_TYPE = OutgoingMessageCodec.PROTOBUF_CONTENT_TYPE;
+    public static final String JSON_CONTENT_TYPE = OutgoingMessageCodec.JSON_CONTENT_TYPE;
+
+    @Value("${rest.pretty-print:false}")
+    private boolean prettyPrint;
+
+    @Autowired
+    private CamelContext camelContext;
+
+    @Autowired
+    private JsonPayloadCodec jsonCodec;
+
+    private JacksonDataFormat camelJson;
+
+    @PostConstruct
+    public void init() {
+        camelJson = new JacksonDataFormat(InputPayload.class);
+        camelJson.setPrettyPrint(prettyPrint);
+        camelJson.setCamelContext(camelContext);
+        ServiceHelper.startService(camelJson);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ServiceHelper.stopService(camelJson);
+    }
+
+    /**
+     * Reads the request body as a {@code grpc.InputPayload} for protobuf requests or a
+     * {@link InputPayload} DTO for JSON. Malformed bodies surface as {@link IOException}.
+     */
+    public Object readPayload(Exchange exchange) throws IOException {
+        InputStream body = exchange.getIn().getBody(InputStream.class);
+        if (body == null) {
+            throw new IOException("Request body is empty");
+        }
+        if (isProtobuf(exchange.getIn().getHeader(Exchange.CONTENT_TYPE, String.class))) {
+            return com.benchmark.service.grpc.InputPayload.parseFrom(body);
+        }
+        if (jsonCodec.isEnabled()) {
+            return jsonCodec.readPayload(body);
+        }
+        try {
+            return camelJson.unmarshal(exchange, body);
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeCamelException(e);
+        }
+    }
+
+    public void writeResponse(Exchange exchange, String status, String message) {
+        if (protobufResponse(exchange)) {
+            writeProtobuf(exchange, com.benchmark.service.grpc.PayloadResponse.newBuilder()
+                    .setStatus(status)
+                    .setMessage(message)
+                    .build());
+        } else {
+            writeJson(exchange, new PayloadResponse(status, message));
+        }
+    }
+
+    public void writePayload(Exchange exchange, InputPayloadEntity entity) {
+        if (protobufResponse(exchange)) {
+            writeProtobuf(exchange, GrpcPayloadConverter.toProto(entity));
+        } else {
+            writeJson(exchange, PayloadMapper.toDto(entity));
+        }
+    }
+
+    public static boolean isProtobuf(String contentType) {
+        return contentType != null && contentType.contains(PROTOBUF_CONTENT_TYPE);
+    }
+
+    private boolean protobufResponse(Exchange exchange) {
+        String accept = exchange.getIn().getHeader("Accept", String.class);
+        if (accept != null) {
+            if (accept.contains(PROTOBUF_CONTENT_TYPE)) {
+                return true;
+            }
+            if (accept.contains("json")) {
+                return false;
+            }
+        }
+        return isProtobuf(exchange.getIn().getHeader(Exchange.CONTENT_TYPE, String.class));
+    }
+
+    private void writeProtobuf(Exchange exchange, MessageLite message) {
+        exchange.getIn().setHeader(Exchange.CONTENT_TYPE, PROTOBUF_CONTENT_TYPE);
+        exchange.getIn().setBody(message.toByteArray());
+    }
+
+    private void writeJson(Exchange exchange, Object body) {
+        byte[] json;
+        try {
+            if (jsonCodec.isEnabled()) {
+                json = body instanceof PayloadResponse response
+                        ? jsonCodec.writeResponse(response)
+                        : jsonCodec.writePayload((InputPayload) body);
+            } else {
+                ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+                camelJson.marshal(exchange, body, out);
+                json = out.toByteArray();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (Exception e) {
+            throw new RuntimeCamelException(e);
+        }
+        exchange.getIn().setHeader(Exchange.CONTENT_TYPE, JSON_CONTENT_TYPE);
+        exchange.getIn().setBody(json);
+    }
+}
@@ -0,0 +1,98 @@
+package com.benchmark.service.service;
+
+import com.benchmark.service.util.BoundedTtlCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers the result of recently committed payload IDs so that a resent payload is
+ * answered without another Spanner commit or Kafka message. Bounded by
+ * {@code payload.idempotency.max-size} and {@code payload.idempotency.ttl-seconds}.
+ * Two copies of the same ID that arrive concurrently can both miss and both be processed.
+ */
+@Component
+public class IdempotencyCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyCache.class);
+
+    @Value("${payload.idempotency.enabled:false}")
+    private boolean enabled;
+
+    @Value("${payload.idempotency.max-size:100000}")
+    private int maxSize;
+
+    @Value("${payload.idempotency.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    @Value("${payload.idempotency.stripes:64}")
+    private int stripes;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private BoundedTtlCache<String, String> results;
+    private Counter hits;
+    private Counter misses;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        results = new BoundedTtlCache<>(maxSize, ttlSeconds, TimeUnit.SECONDS, stripes);
+
+        hits = Counter.builder("payload.idempotency.requests")
+                .description("Idempotency lookups by result")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        misses = Counter.builder("payload.idempotency.requests")
+                .description("Idempotency lookups by result")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        FunctionCounter.builder("payload.idempotency.evictions", results, BoundedTtlCache::sizeEvictions)
+                .description("Cached results dropped from the idempotency cache")
+                .tag("cause", "size")
+                .register(meterRegistry);
+        FunctionCounter.builder("payload.idempotency.evictions", results, BoundedTtlCache::expiredEvictions)
+                .description("Cached results dropped from the idempotency cache")
+                .tag("cause", "expired")
+                .register(meterRegistry);
+        Gauge.builder("payload.idempotency.size", results, BoundedTtlCache::size)
+                .description("Payload IDs currently held in the idempotency cache")
+                .register(meterRegistry);
+
+        logger.info("Idempotency cache enabled: maxSize={}, ttlSeconds={}", maxSize, ttlSeconds);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the original result for a payload ID committed within the TTL, or null.
+     */
+    public String lookup(String payloadId) {
+        if (!enabled || payloadId == null) {
+            return null;
+        }
+        String result = results.get(payloadId);
+        (result != null ? hits : misses).increment();
+        return result;
+    }
+
+    public void remember(String payloadId, String result) {
+        if (enabled && payloadId != null) {
+            results.put(payloadId, result);
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.benchmark.service.service;
+
+import com.benchmark.service.entity.InputPayloadEntity;
+import com.benchmark.service.util.MappedAppendLog;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * The {@code journal} {@link PayloadProcessor}: payloads are appended to a local journal of
+ * {@link MappedAppendLog} segments under {@code payload.journal.directory}, each
+ * {@code payload.journal.segment-bytes} long. A full segment is closed and the next one started;
+ * beyond {@code payload.journal.max-segments} the oldest is deleted.
+ * <p>Group commit: an append only copies the record into the mapping. A single committer thread
+ * syncs the segment and completes every payload appended before the sync, so payloads that
+ * arrive while one sync runs share the next one. With {@code payload.journal.sync=false}
+ * payloads complete once appended and survive a process crash but not an operating system crash.
+ * <p>Records hold the correlation ID, payload ID, protocol, content and both timestamps. Exports
+ * {@code payload.journal.sync} and {@code payload.journal.group.size}.
+ */
+@Service
+@ConditionalOnProperty(name = "payload.processor", havingValue = "journal")
+public class JournalPayloadProcessor extends LocalPayloadProcessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(JournalPayloadProcessor.class);
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("journal-(\\d+)\\.log");
+    private static final CompletableFuture<Void> STORED = CompletableFuture.completedFuture(null);
+
+    @Value("${payload.journal.directory:journal}")
+    private String directory;
+
+    @Value("${payload.journal.segment-bytes:268435456}")
+    private int segmentBytes;
+
+    @Value("${payload.journal.max-segments:8}")
+    private int maxSegments;
+
+    @Value("${payload.journal.sync:true}")
+    private boolean sync;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Guards segment, segmentIndex, pending and stopped
+    private final Object lock = new Object();
+    private MappedAppendLog segment;
+    private long segmentIndex;
+    private List<CompletableFuture<Void>> pending = new ArrayList<>();
+    private boolean stopped;
+
+    private volatile boolean running;
+    private Thread committer;
+    private Timer syncTimer;
+    private DistributionSummary groupSizes;
+
+    @PostConstruct
+    public void start() throws IOException {
+        Path dir = Path.of(directory);
+        Files.createDirectories(dir);
+        List<Long> existing = segmentIndexes(dir);
+        // Continue the newest segment; its records are kept and appends go after them
+        segmentIndex = existing.isEmpty() ? 0 : existing.get(existing.size() - 1);
+        segment = MappedAppendLog.open(segmentPath(segmentIndex), segmentBytes);
+
+        syncTimer = Timer.builder("payload.journal.sync")
+                .description("Time to sync the journal for one group commit")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        groupSizes = DistributionSummary.builder("payload.journal.group.size")
+                .description("Payloads made durable per journal group commit")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+
+        if (sync) {
+            running = true;
+            committer = new Thread(this::runCommitter, "journal-group-commit");
+            committer.setDaemon(true);
+            committer.start();
+        }
+        logger.info("Journal payload processor: directory={}, segment={} ({} records), segmentBytes={}, sync={}",
+                dir.toAbsolutePath(), segmentIndex, segment.size(), segment.capacity(), sync);
+    }
+
+    @PreDestroy
+    public void stop() throws IOException, InterruptedException {
+        synchronized (lock) {
+            stopped = true;
+        }
+        running = false;
+        if (committer != null) {
+            committer.interrupt();
+            committer.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        synchronized (lock) {
+            // close() syncs, which covers whatever the committer had not reached; if it fails,
+            // so do the payloads waiting for it
+            try {
+                segment.close();
+                pending.forEach(stored -> stored.complete(null));
+            } catch (IOException | RuntimeException e) {
+                pending.forEach(stored -> stored.completeExceptionally(e));
+                throw e;
+            } finally {
+                pending.clear();
+            }
+        }
+    }
+
+    @Override
+    protected CompletableFuture<Void> store(InputPayloadEntity entity, String correlationId) {
+        byte[] record = encode(entity, correlationId);
+        synchronized (lock) {
+            if (stopped) {
+                return CompletableFuture.failedFuture(new IllegalStateException("Journal is closed"));
+            }
+            if (!segment.append(record)) {
+                roll();
+                if (!segment.append(record)) {
+                    return CompletableFuture.failedFuture(new IllegalArgumentException(
+                            "Journal record of " + record.length + " bytes does not fit in a segment"));
+                }
+            }
+            if (!sync) {
+                return STORED;
+            }
+            CompletableFuture<Void> stored = new CompletableFuture<>();
+            pending.add(stored);
+            if (pending.size() == 1) {
+                lock.notify();
+            }
+            return stored;
+        }
+    }
+
+    private void runCommitter() {
+        while (running) {
+            List<CompletableFuture<Void>> group;
+            MappedAppendLog current;
+            synchronized (lock) {
+                while (pending.isEmpty()) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                group = pending;
+                pending = new ArrayList<>();
+                current = segment;
+            }
+            // Earlier segments were synced when they were closed
+            long start = System.nanoTime();
+            try {
+                current.force();
+                syncTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                groupSizes.record(group.size());
+                group.forEach(stored -> stored.complete(null));
+            } catch (RuntimeException e) {
+                logger.error("Journal sync failed for {} payloads: {}", group.size(), e.getMessage(), e);
+                group.forEach(stored -> stored.completeExceptionally(e));
+            }
+        }
+    }
+
+    // Caller holds the lock
+    private void roll() {
+        try {
+            segment.close();
+            segmentIndex++;
+            segment = MappedAppendLog.open(segmentPath(segmentIndex), segmentBytes);
+            List<Long> segments = segmentIndexes(Path.of(directory));
+            for (int i = 0; i < segments.size() - maxSegments; i++) {
+                Files.deleteIfExists(segmentPath(segments.get(i)));
+            }
+            logger.info("Journal rolled to segment {}", segmentIndex);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path segmentPath(long index) {
+        return Path.of(directory, String.format("journal-%06d.log", index));
+    }
+
+    private static List<Long> segmentIndexes(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(file -> SEGMENT_NAME.matcher(file.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .map(matcher -> Long.parseLong(matcher.group(1)))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static byte[] encode(InputPayloadEntity entity, String correlationId) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+            DataOutputStream out = new DataOutputStream(bytes);
+            writeString(out, correlationId);
+            writeString(out, entity.getId());
+            writeString(out, entity.getProtocol());
+            writeString(out, entity.getContent());
+            out.writeLong(entity.getTimestamp() != null ? entity.getTimestamp().toEpochMilli() : 0);
+            out.writeLong(System.currentTimeMillis());
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Length-prefixed UTF-8; writeUTF would cap content at 64 KB
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] utf8 = value != null ? value.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+}
@@ -0,0 +1,117 @@
+package com.benchmark.service.service;
+
+import com.benchmark.service.dto.InputPayload;
+import com.benchmark.service.dto.PayloadResponse;
+import com.benchmark.service.entity.InputPayloadEntity;
+import com.benchmark.service.metrics.PayloadStageMetrics;
+import com.benchmark.service.util.CorrelationIds;
+import com.benchmark.service.util.FutureUtils;
+import com.benchmark.service.util.PayloadMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Base for the processors that keep payloads on this machine. Maps each payload to its entity,
+ * hands it to {@link #store} and answers like {@link TransactionalPayloadService} once the
+ * store completes; stored payloads are cached for look-ups by ID. Nothing is sent to Kafka and
+ * no concurrency limit applies, as there is no shared backend to protect.
+ */
+public abstract class LocalPayloadProcessor implements PayloadProcessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalPayloadProcessor.class);
+
+    @Autowired
+    private PayloadQueryService queryService;
+
+    @Autowired
+    private PayloadStageMetrics stageMetrics;
+
+    /**
+     * Keeps the entity; the future completes once it is stored as durably as the backend promises.
+     */
+    protected abstract CompletableFuture<Void> store(InputPayloadEntity entity, String correlationId);
+
+    @Override
+    public String processPayload(InputPayload payload, String protocol) {
+        return join(processPayloadAsync(payload, protocol));
+    }
+
+    @Override
+    public CompletableFuture<String> processPayloadAsync(InputPayload payload, String protocol) {
+        return process(payload.getId(), payload.getContent(), payload.getTimestamp(), protocol);
+    }
+
+    @Override
+    public CompletableFuture<String> processPayloadAsync(com.benchmark.service.grpc.InputPayload payload, String protocol) {
+        return process(payload.getId(), payload.getContent(), payload.getTimestamp(), protocol);
+    }
+
+    @Override
+    public List<PayloadResponse> processPayloadBatch(List<InputPayload> payloads, String protocol) {
+        return join(processPayloadBatchAsync(payloads, protocol));
+    }
+
+    @Override
+    public CompletableFuture<List<PayloadResponse>> processPayloadBatchAsync(List<InputPayload> payloads, String protocol) {
+        List<CompletableFuture<String>> stored = new ArrayList<>(payloads.size());
+        for (InputPayload payload : payloads) {
+            stored.add(processPayloadAsync(payload, protocol));
+        }
+        return CompletableFuture.allOf(stored.toArray(new CompletableFuture[0])).handle((ignored, error) -> {
+            List<PayloadResponse> results = new ArrayList<>(stored.size());
+            for (CompletableFuture<String> result : stored) {
+                try {
+                    results.add(new PayloadResponse("success", result.join()));
+                } catch (CompletionException e) {
+                    results.add(new PayloadResponse("error", FutureUtils.unwrap(e).getMessage()));
+                }
+            }
+            return results;
+        });
+    }
+
+    private CompletableFuture<String> process(String id, String content, String timestamp, String protocol) {
+        Instant now = Instant.now();
+        String correlationId = CorrelationIds.next(now.toEpochMilli());
+        long start = stageMetrics.start();
+        CompletableFuture<Void> stored;
+        InputPayloadEntity entity;
+        try {
+            entity = PayloadMapper.toEntity(id, content, timestamp, protocol, now);
+            stored = store(entity, correlationId);
+        } catch (RuntimeException e) {
+            stageMetrics.record(PayloadStageMetrics.STORE, protocol, start, e);
+            return CompletableFuture.failedFuture(failure(protocol, e));
+        }
+        return stored.handle((ignored, error) -> {
+            stageMetrics.record(PayloadStageMetrics.STORE, protocol, start, error);
+            if (error != null) {
+                throw new CompletionException(failure(protocol, FutureUtils.unwrap(error)));
+            }
+            queryService.cache(entity);
+            return "SUCCESS: Processed " + protocol + " payload with correlation ID: " + correlationId;
+        });
+    }
+
+    // The adapters log the failed request once through RequestLogger
+    private RuntimeException failure(String protocol, Throwable e) {
+        logger.debug("Error processing {} payload: {}", protocol, e.getMessage(), e);
+        return new RuntimeException("Failed to process " + protocol + " payload: " + e.getMessage(), e);
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = FutureUtils.unwrap(e);
+            throw cause instanceof RuntimeException runtime ? runtime : e;
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package com.benchmark.service.service;
+
+import com.benchmark.service.entity.OutboxMessageEntity;
+import com.benchmark.service.messaging.KafkaPayloadPublisher;
+import com.benchmark.service.messaging.OutgoingMessageCodec;
+import com.google.cloud.spanner.DatabaseClient;
+import com.google.cloud.spanner.ResultSet;
+import com.google.cloud.spanner.Statement;
+import com.google.cloud.spanner.TimestampBound;
+import com.google.cloud.spring.data.spanner.core.SpannerTemplate;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the payload outbox to Kafka in large batches, off the request path.
+ * Rows are deleted only after Kafka acknowledged them, so delivery is at least once.
+ * <p>Every replica runs a relay. Candidates come from a lock-free stale read of the lease index;
+ * a relay then claims them in a read-write transaction that locks only those rows, stamping
+ * them with its ID and a lease of {@code kafka.outbox.lease-ms}. Other relays skip claimed rows
+ * until the lease runs out, and a relay deletes only rows it still holds. Sending a batch is
+ * bounded by {@code kafka.outbox.send-timeout-ms} from the claim, so it ends within the lease.
+ * Rows whose send failed are picked up again once their lease expires.
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    // Covered by payload_outbox_by_lease, so only claimable entries are scanned
+    private static final String CANDIDATE_QUERY =
+            "SELECT id FROM payload_outbox@{FORCE_INDEX=payload_outbox_by_lease}"
+                    + " WHERE lease_until IS NULL OR lease_until < CURRENT_TIMESTAMP()"
+                    + " ORDER BY created_at LIMIT @limit";
+
+    // Re-checks the lease: the candidates may have been claimed since the stale read
+    private static final String CLAIMABLE_QUERY =
+            "SELECT id, topic, message_key, payload, content_type, created_at, claimed_by, lease_until"
+                    + " FROM payload_outbox WHERE id IN UNNEST(@ids)"
+                    + " AND (lease_until IS NULL OR lease_until < CURRENT_TIMESTAMP())"
+                    + " ORDER BY created_at";
+
+    private static final long CANDIDATE_MAX_STALENESS_MS = 1000;
+
+    private static final String CLAIM_UPDATE =
+            "UPDATE payload_outbox SET claimed_by = @owner,"
+                    + " lease_until = TIMESTAMP_ADD(CURRENT_TIMESTAMP(), INTERVAL @leaseMs MILLISECOND)"
+                    + " WHERE id IN UNNEST(@ids)";
+
+    private static final String DELETE_OWNED =
+            "DELETE FROM payload_outbox WHERE id IN UNNEST(@ids) AND claimed_by = @owner";
+
+    @Value("${kafka.outbox.enabled:false}")
+    private boolean enabled;
+
+    @Value("${kafka.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${kafka.outbox.poll-interval-ms:50}")
+    private long pollIntervalMs;
+
+    @Value("${kafka.outbox.send-timeout-ms:30000}")
+    private long sendTimeoutMs;
+
+    @Value("${kafka.outbox.lease-ms:60000}")
+    private long leaseMs;
+
+    @Autowired
+    private SpannerTemplate spannerTemplate;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private KafkaPayloadPublisher kafkaPublisher;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final String owner = UUID.randomUUID().toString();
+    private ScheduledExecutorService scheduler;
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    private DistributionSummary batchSizes;
+    private Counter relayedMessages;
+    private Counter failedMessages;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        if (leaseMs <= sendTimeoutMs) {
+            throw new IllegalStateException("kafka.outbox.lease-ms (" + leaseMs
+                    + ") must exceed kafka.outbox.send-timeout-ms (" + sendTimeoutMs + ")");
+        }
+        batchSizes = DistributionSummary.builder("outbox.relay.batch.size")
+                .description("Outbox messages relayed to Kafka per batch")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        relayedMessages = Counter.builder("outbox.relay.messages")
+                .description("Outbox messages delivered to Kafka")
+                .register(meterRegistry);
+        failedMessages = Counter.builder("outbox.relay.failures")
+                .description("Outbox messages that failed to reach Kafka and will be retried")
+                .register(meterRegistry);
+        Gauge.builder("outbox.relay.lag", lagMillis, AtomicLong::get)
+                .description("Age in milliseconds of the oldest outbox message at the last poll")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "outbox-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::relayPending, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+        logger.info("Outbox relay {} started: batchSize={}, pollIntervalMs={}, leaseMs={}",
+                owner, batchSize, pollIntervalMs, leaseMs);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    private void relayPending() {
+        try {
+            // Keep draining while batches come back full
+            int relayed;
+            do {
+                relayed = relayBatch();
+            } while (relayed == batchSize);
+        } catch (Exception e) {
+            logger.warn("Outbox relay pass failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private int relayBatch() throws InterruptedException {
+        // Taken before the claim commits, so the deadline falls inside the lease
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        List<OutboxMessageEntity> pending = claimBatch();
+        if (pending.isEmpty()) {
+            lagMillis.set(0);
+            return 0;
+        }
+        lagMillis.set(Math.max(0, System.currentTimeMillis() - pending.get(0).getCreatedAt().toEpochMilli()));
+
+        List<CompletableFuture<?>> sends = new ArrayList<>(pending.size());
+        for (OutboxMessageEntity message : pending) {
+            if (System.nanoTime() - deadline >= 0) {
+                // Out of time for this claim; the rest is retried after the lease expires
+                sends.add(CompletableFuture.failedFuture(new TimeoutException("Outbox send deadline passed")));
+                continue;
+            }
+            sends.add(kafkaPublisher.publishBlocking(OutgoingMessageCodec.record(message.getTopic(), message.getMessageKey(),
+                    message.getPayload().toByteArray(), message.getContentType())));
+        }
+        kafkaPublisher.flush();
+
+        try {
+            CompletableFuture.allOf(sends.toArray(new CompletableFuture[0]))
+                    .get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            logger.warn("Some outbox messages were not acknowledged by Kafka: {}", e.getMessage());
+        }
+
+        List<OutboxMessageEntity> delivered = new ArrayList<>(pending.size());
+        for (int i = 0; i < pending.size(); i++) {
+            CompletableFuture<?> send = sends.get(i);
+            if (send.isDone() && !send.isCompletedExceptionally()) {
+                delivered.add(pending.get(i));
+            } else {
+                failedMessages.increment();
+            }
+        }
+        if (!delivered.isEmpty()) {
+            deleteOwned(delivered);
+        }
+
+        batchSizes.record(delivered.size());
+        relayedMessages.increment(delivered.size());
+        return delivered.size();
+    }
+
+    /**
+     * Picks the oldest unclaimed or expired rows with a stale read, which takes no locks on the
+     * outbox, then claims those still claimable for this relay in one read-write transaction so
+     * two relays cannot claim the same row.
+     */
+    private List<OutboxMessageEntity> claimBatch() {
+        List<String> candidates = new ArrayList<>(batchSize);
+        Statement candidateQuery = Statement.newBuilder(CANDIDATE_QUERY).bind("limit").to(batchSize).build();
+        try (ResultSet resultSet = databaseClient
+                .singleUse(TimestampBound.ofMaxStaleness(CANDIDATE_MAX_STALENESS_MS, TimeUnit.MILLISECONDS))
+                .executeQuery(candidateQuery)) {
+            while (resultSet.next()) {
+                candidates.add(resultSet.getString("id"));
+            }
+        }
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+        return databaseClient.readWriteTransaction().run(txn -> {
+            List<OutboxMessageEntity> rows;
+            Statement query = Statement.newBuilder(CLAIMABLE_QUERY).bind("ids").toStringArray(candidates).build();
+            try (ResultSet resultSet = txn.executeQuery(query)) {
+                rows = spannerTemplate.getSpannerEntityProcessor().mapToList(resultSet, OutboxMessageEntity.class);
+            }
+            if (!rows.isEmpty()) {
+                txn.executeUpdate(Statement.newBuilder(CLAIM_UPDATE)
+                        .bind("owner").to(owner)
+                        .bind("leaseMs").to(leaseMs)
+                        .bind("ids").toStringArray(idsOf(rows))
+                        .build());
+            }
+            return rows;
+        });
+    }
+
+    // A row whose lease ran out may have been claimed by another relay; that relay deletes it
+    private void deleteOwned(List<OutboxMessageEntity> delivered) {
+        Statement delete = Statement.newBuilder(DELETE_OWNED)
+                .bind("ids").toStringArray(idsOf(delivered))
+                .bind("owner").to(owner)
+                .build();
+        databaseClient.readWriteTransaction().run(txn -> txn.executeUpdate(delete));
+    }
+
+    private static List<String> idsOf(List<OutboxMessageEntity> messages) {
+        List<String> ids = new ArrayList<>(messages.size());
+        for (OutboxMessageEntity message : messages) {
+            ids.add(message.getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,43 @@
+package com.benchmark.service.service;
+
+import com.benchmark.service.dto.InputPayload;
+import com.benchmark.service.dto.PayloadResponse;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Where accepted payloads go, selected by {@code payload.processor}. The REST and gRPC
+ * adapters only talk to this interface.
+ * <ul>
+ *   <li>{@code spanner-kafka} - {@link TransactionalPayloadService}: Spanner commit, then Kafka (default).</li>
+ *   <li>{@code ring-buffer} - {@link RingBufferPayloadProcessor}: overwrites slots of an in-memory ring;
+ *       what remains is the protocol overhead.</li>
+ *   <li>{@code journal} - {@link JournalPayloadProcessor}: local memory-mapped journal with group commit.</li>
+ * </ul>
+ * Every processor answers with the same result strings, so clients cannot tell them apart.
+ */
+public interface PayloadProcessor {
+
+    /**
+     * Processes one payload on the calling thread and returns the result message.
+     */
+    String processPayload(InputPayload payload, String protocol);
+
+    /**
+     * Processes one payload; the future completes with the result message.
+     */
+    CompletableFuture<String> processPayloadAsync(InputPayload payload, String protocol);
+
+    /**
+     * Same as {@link #processPayloadAsync(InputPayload, String)} for the protobuf request.
+     */
+    CompletableFuture<String> processPayloadAsync(com.benchmark.service.grpc.InputPayload payload, String protocol);
+
+    /**
+     * Processes a batch and returns one result per payload, in request order.
+     */
+    List<PayloadResponse> processPayloadBatch(List<InputPayload> payloads, String protocol);
+
+    CompletableFuture<List<PayloadResponse>> processPayloadBatchAsync(List<InputPayload> payloads, String protocol);
+}
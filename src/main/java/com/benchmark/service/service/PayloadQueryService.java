@@ -0,0 +1,154 @@
+package com.benchmark.service.service;
+
+import com.benchmark.service.entity.InputPayloadEntity;
+import com.benchmark.service.util.BoundedTtlCache;
+import com.google.cloud.spanner.DatabaseClient;
+import com.google.cloud.spanner.Key;
+import com.google.cloud.spanner.Struct;
+import com.google.cloud.spanner.TimestampBound;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Payload look-ups by ID. Reads go through a size- and TTL-bounded cache that the write
+ * path fills after each commit; misses are served by a single-use Spanner read with
+ * bounded staleness ({@code payload.read.max-staleness-ms}), which any replica can answer
+ * without a read-write transaction. With a local {@code payload.processor} ({@code ring-buffer},
+ * {@code journal}) there is no Spanner to read, so a cache miss is answered as not found.
+ */
+@Service
+public class PayloadQueryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PayloadQueryService.class);
+
+    private static final String TABLE = "input_payload";
+    private static final List<String> COLUMNS = List.of("id", "content", "timestamp", "protocol");
+
+    @Value("${payload.read.cache.enabled:true}")
+    private boolean cacheEnabled;
+
+    @Value("${payload.read.cache.max-size:100000}")
+    private int cacheMaxSize;
+
+    @Value("${payload.read.cache.ttl-seconds:60}")
+    private long cacheTtlSeconds;
+
+    @Value("${payload.read.max-staleness-ms:10000}")
+    private long maxStalenessMs;
+
+    @Value("${payload.processor:spanner-kafka}")
+    private String processor;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private BoundedTtlCache<String, InputPayloadEntity> cache;
+    private Counter cacheHits;
+    private Counter cacheMisses;
+    private Timer cacheTimer;
+    private Timer spannerTimer;
+    private boolean spannerReads;
+
+    @PostConstruct
+    public void init() {
+        if (cacheEnabled) {
+            cache = new BoundedTtlCache<>(cacheMaxSize, cacheTtlSeconds, TimeUnit.SECONDS, 64);
+            FunctionCounter.builder("payload.read.cache.evictions", cache,
+                            c -> c.sizeEvictions() + c.expiredEvictions())
+                    .description("Payloads dropped from the read cache")
+                    .register(meterRegistry);
+        }
+        cacheHits = Counter.builder("payload.read.cache.requests")
+                .description("Read cache lookups by result")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        cacheMisses = Counter.builder("payload.read.cache.requests")
+                .description("Read cache lookups by result")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        cacheTimer = readTimer("cache");
+        spannerTimer = readTimer("spanner");
+        spannerReads = "spanner-kafka".equals(processor);
+
+        logger.info("Payload read path: cache={} (maxSize={}, ttlSeconds={}), spannerReads={}, maxStalenessMs={}",
+                cacheEnabled, cacheMaxSize, cacheTtlSeconds, spannerReads, maxStalenessMs);
+    }
+
+    /**
+     * Returns the payload with the given ID, from the cache if present, otherwise from a
+     * bounded-staleness Spanner read (whose result is cached). Local processors only have the cache.
+     */
+    public Optional<InputPayloadEntity> findById(String id) {
+        if (cache != null) {
+            long start = System.nanoTime();
+            InputPayloadEntity cached = cache.get(id);
+            cacheTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (cached != null) {
+                cacheHits.increment();
+                return Optional.of(cached);
+            }
+            cacheMisses.increment();
+        }
+        if (!spannerReads) {
+            return Optional.empty();
+        }
+
+        long start = System.nanoTime();
+        Struct row;
+        try {
+            row = databaseClient.singleUse(TimestampBound.ofMaxStaleness(maxStalenessMs, TimeUnit.MILLISECONDS))
+                    .readRow(TABLE, Key.of(id), COLUMNS);
+        } finally {
+            spannerTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        if (row == null) {
+            return Optional.empty();
+        }
+
+        InputPayloadEntity entity = toEntity(row);
+        cache(entity);
+        return Optional.of(entity);
+    }
+
+    /**
+     * Makes a freshly committed payload readable without a Spanner round trip.
+     */
+    public void cache(InputPayloadEntity entity) {
+        if (cache != null) {
+            cache.put(entity.getId(), entity);
+        }
+    }
+
+    private Timer readTimer(String layer) {
+        return Timer.builder("payload.read")
+                .description("Payload look-up latency per layer")
+                .tag("layer", layer)
+                .publishPercentiles(0.5, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static InputPayloadEntity toEntity(Struct row) {
+        InputPayloadEntity entity = new InputPayloadEntity();
+        entity.setId(row.getString("id"));
+        entity.setContent(row.isNull("content") ? null : row.getString("content"));
+        entity.setTimestamp(row.isNull("timestamp") ? null : row.getTimestamp("timestamp").toSqlTimestamp().toInstant());
+        entity.setProtocol(row.isNull("protocol") ? null : row.getString("protocol"));
+        return entity;
+    }
+}
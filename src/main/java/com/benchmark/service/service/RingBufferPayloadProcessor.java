@@ -0,0 +1,58 @@
+package com.benchmark.service.service;
+
+import com.benchmark.service.entity.InputPayloadEntity;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The {@code ring-buffer} {@link PayloadProcessor}: each payload overwrites the oldest slot of
+ * an in-memory ring of {@code payload.ring.size} entities (rounded down to a power of two) and
+ * completes at once. No I/O is left on the request path, so latency and throughput measured
+ * against it are the protocol and serialisation overhead alone. Nothing survives a restart.
+ */
+@Service
+@ConditionalOnProperty(name = "payload.processor", havingValue = "ring-buffer")
+public class RingBufferPayloadProcessor extends LocalPayloadProcessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(RingBufferPayloadProcessor.class);
+
+    private static final CompletableFuture<Void> STORED = CompletableFuture.completedFuture(null);
+
+    @Value("${payload.ring.size:65536}")
+    private int size;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private AtomicReferenceArray<InputPayloadEntity> ring;
+    private int mask;
+
+    @PostConstruct
+    public void init() {
+        int capacity = Integer.highestOneBit(Math.max(1, size));
+        ring = new AtomicReferenceArray<>(capacity);
+        mask = capacity - 1;
+        FunctionCounter.builder("payload.ring.written", sequence, AtomicLong::get)
+                .description("Payloads written to the in-memory ring buffer")
+                .register(meterRegistry);
+        logger.info("Ring buffer payload processor: {} slots", capacity);
+    }
+
+    @Override
+    protected CompletableFuture<Void> store(InputPayloadEntity entity, String correlationId) {
+        ring.lazySet((int) (sequence.getAndIncrement() & mask), entity);
+        return STORED;
+    }
+}
@@ -0,0 +1,243 @@
+package com.benchmark.service.service;
+
+import com.google.cloud.spanner.DatabaseClient;
+import com.google.cloud.spanner.Mutation;
+import com.google.cloud.spanner.SpannerException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects Spanner mutations from concurrent callers and commits them as a single
+ * mutation batch. A batch is flushed when it reaches {@code spanner.batch.max-size}
+ * writes or when {@code spanner.batch.linger-ms} has passed since its first write.
+ * Every caller gets its own future, so a failing row does not fail its neighbours.
+ */
+@Component
+public class SpannerBatchWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpannerBatchWriter.class);
+
+    @Value("${spanner.batch.enabled:false}")
+    private boolean enabled;
+
+    @Value("${spanner.batch.max-size:100}")
+    private int maxBatchSize;
+
+    @Value("${spanner.batch.linger-ms:5}")
+    private long lingerMs;
+
+    @Value("${spanner.batch.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${spanner.batch.flush-threads:1}")
+    private int flushThreads;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private BlockingQueue<PendingWrite> queue;
+    private final List<Thread> flushers = new ArrayList<>();
+    private volatile boolean running;
+
+    private DistributionSummary batchSizes;
+    private Timer commitTimer;
+    private Counter rejectedWrites;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        batchSizes = DistributionSummary.builder("spanner.batch.size")
+                .description("Number of payload writes committed per Spanner batch")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        commitTimer = Timer.builder("spanner.batch.commit")
+                .description("Latency of a Spanner batch commit")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        rejectedWrites = Counter.builder("spanner.batch.rejected")
+                .description("Writes rejected because the batch queue was full")
+                .register(meterRegistry);
+        Gauge.builder("spanner.batch.queue.depth", queue, BlockingQueue::size)
+                .description("Writes waiting to be batched")
+                .register(meterRegistry);
+
+        running = true;
+        for (int i = 0; i < flushThreads; i++) {
+            Thread flusher = new Thread(this::runFlushLoop, "spanner-batch-writer-" + i);
+            flusher.setDaemon(true);
+            flusher.start();
+            flushers.add(flusher);
+        }
+        logger.info("Spanner batch writer started: maxSize={}, lingerMs={}, queueCapacity={}, flushThreads={}",
+                maxBatchSize, lingerMs, queueCapacity, flushThreads);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        for (Thread flusher : flushers) {
+            try {
+                flusher.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (queue != null) {
+            // Writes queued after the flushers exited would otherwise never complete
+            List<PendingWrite> leftover = new ArrayList<>();
+            queue.drainTo(leftover);
+            failAll(leftover, new RejectedExecutionException("Spanner batch writer stopped"));
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues the mutations of one payload for the next batch. The returned future
+     * completes once the batch containing them has been committed.
+     */
+    public CompletableFuture<Void> submit(List<Mutation> mutations) {
+        PendingWrite write = new PendingWrite(mutations);
+        if (!running) {
+            write.future.completeExceptionally(new RejectedExecutionException("Spanner batch writer is stopped"));
+            return write.future;
+        }
+        if (!queue.offer(write)) {
+            rejectedWrites.increment();
+            write.future.completeExceptionally(
+                    new RejectedExecutionException("Spanner batch queue is full (capacity " + queueCapacity + ")"));
+        } else if (!running && queue.remove(write)) {
+            // stop() began after the check above and may already have drained the queue
+            write.future.completeExceptionally(new RejectedExecutionException("Spanner batch writer is stopped"));
+        }
+        return write.future;
+    }
+
+    private void runFlushLoop() {
+        List<PendingWrite> batch = new ArrayList<>(maxBatchSize);
+        long lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMs);
+
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingWrite first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < maxBatchSize) {
+                    if (queue.drainTo(batch, maxBatchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    PendingWrite next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failAll(batch, e);
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingWrite> batch) {
+        List<Mutation> mutations = new ArrayList<>();
+        for (PendingWrite write : batch) {
+            mutations.addAll(write.mutations);
+        }
+
+        batchSizes.record(batch.size());
+        long start = System.nanoTime();
+        try {
+            databaseClient.write(mutations);
+            commitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            for (PendingWrite write : batch) {
+                write.future.complete(null);
+            }
+        } catch (Exception e) {
+            commitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (batch.size() == 1 || !notApplied(e)) {
+                // A single write, or an unknown outcome: the batch may have been committed, and
+                // retrying an insert would report every applied write as ALREADY_EXISTS
+                failAll(batch, e);
+                return;
+            }
+            // The batch commit is atomic and was rejected, so retry each write on its own to
+            // find out which callers actually failed.
+            logger.warn("Spanner batch of {} writes failed, retrying individually: {}", batch.size(), e.getMessage());
+            for (PendingWrite write : batch) {
+                try {
+                    databaseClient.write(write.mutations);
+                    write.future.complete(null);
+                } catch (Exception single) {
+                    write.future.completeExceptionally(single);
+                }
+            }
+        }
+    }
+
+    // Errors that mean the commit was rejected rather than possibly applied
+    private static boolean notApplied(Exception e) {
+        if (!(e instanceof SpannerException spannerException)) {
+            return false;
+        }
+        return switch (spannerException.getErrorCode()) {
+            case ABORTED, INVALID_ARGUMENT, ALREADY_EXISTS, NOT_FOUND, FAILED_PRECONDITION, OUT_OF_RANGE -> true;
+            default -> false;
+        };
+    }
+
+    private void failAll(List<PendingWrite> batch, Exception cause) {
+        for (PendingWrite write : batch) {
+            write.future.completeExceptionally(cause);
+        }
+    }
+
+    private static final class PendingWrite {
+        private final List<Mutation> mutations;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        private PendingWrite(List<Mutation> mutations) {
+            this.mutations = mutations;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.benchmark.service.service;
+
+import java.util.Locale;
+
+/**
+ * How unbatched payload writes are committed to Spanner, selected by {@code spanner.write.mode}.
+ * <ul>
+ *   <li>{@code transaction} - the repository saves inside a Spring-managed read-write
+ *       transaction (async pipeline: an async transaction runner buffering the mutations).</li>
+ *   <li>{@code insert} - a blind {@code insert} mutation committed with
+ *       {@code DatabaseClient.write}; no reads and no Spring transaction. A payload ID that
+ *       already exists fails with {@code ALREADY_EXISTS}.</li>
+ *   <li>{@code insert-or-update} - the same with an {@code insertOrUpdate} mutation.</li>
+ *   <li>{@code at-least-once} - an {@code insertOrUpdate} mutation committed with
+ *       {@code DatabaseClient.writeAtLeastOnce}: one commit RPC in a single-use transaction.
+ *       A retried commit may apply twice, which the upsert makes harmless; outbox rows
+ *       are upserted too for the same reason.</li>
+ * </ul>
+ */
+public enum SpannerWriteMode {
+    TRANSACTION,
+    INSERT,
+    INSERT_OR_UPDATE,
+    AT_LEAST_ONCE;
+
+    public static SpannerWriteMode fromName(String name) {
+        return valueOf(name.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+    }
+
+    public String tagValue() {
+        return name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+}
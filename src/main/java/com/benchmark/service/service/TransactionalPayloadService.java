@@ -1,85 +1,614 @@
 package com.benchmark.service.service;
 
+import com.benchmark.service.config.ExecutionModeConfig;
 import com.benchmark.service.dto.InputPayload;
 import com.benchmark.service.dto.OutgoingMqMessage;
+import com.benchmark.service.dto.PayloadResponse;
 import com.benchmark.service.entity.InputPayloadEntity;
+import com.benchmark.service.entity.OutboxMessageEntity;
+import com.benchmark.service.limit.AdaptiveConcurrencyLimiter;
+import com.benchmark.service.messaging.KafkaPayloadPublisher;
+import com.benchmark.service.messaging.OutgoingMessageCodec;
+import com.benchmark.service.metrics.PayloadStageMetrics;
 import com.benchmark.service.repository.InputPayloadRepository;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.benchmark.service.repository.OutboxMessageRepository;
+import com.benchmark.service.util.CorrelationIds;
+import com.benchmark.service.util.FutureUtils;
+import com.benchmark.service.util.PayloadMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import com.google.cloud.ByteArray;
+import com.google.cloud.spanner.DatabaseClient;
+import com.google.cloud.spanner.Mutation;
+import com.google.cloud.spring.data.spanner.core.SpannerMutationFactory;
+import com.google.common.util.concurrent.MoreExecutors;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.time.Instant;
-import java.util.UUID;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
+/**
+ * The {@code spanner-kafka} {@link PayloadProcessor}: each payload is committed to Spanner
+ * and then sent to its protocol's Kafka topic, or committed together with an outbox message.
+ */
 @Service
-public class TransactionalPayloadService {
+@ConditionalOnProperty(name = "payload.processor", havingValue = "spanner-kafka", matchIfMissing = true)
+public class TransactionalPayloadService implements PayloadProcessor {
 
     private static final Logger logger = LoggerFactory.getLogger(TransactionalPayloadService.class);
 
+    @Value("${payload.pipeline.async:false}")
+    private boolean asyncPipeline;
+
+    @Value("${spanner.write.mode:transaction}")
+    private String writeModeName;
+
     @Autowired
     private InputPayloadRepository repository;
 
     @Autowired
-    private KafkaTemplate<String, String> kafkaTemplate;
+    private OutboxMessageRepository outboxRepository;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private KafkaPayloadPublisher kafkaPublisher;
+
+    @Autowired
+    private OutgoingMessageCodec messageCodec;
+
+    @Autowired
+    private IdempotencyCache idempotencyCache;
+
+    @Autowired
+    private PayloadQueryService queryService;
+
+    @Autowired
+    private PayloadStageMetrics stageMetrics;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private SpannerMutationFactory mutationFactory;
+
+    @Autowired
+    private SpannerBatchWriter batchWriter;
 
     @Autowired
-    private ObjectMapper objectMapper;
+    private PlatformTransactionManager transactionManager;
 
-    @Transactional
+    @Autowired
+    private ExecutionModeConfig executionMode;
+
+    @Autowired
+    private AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private TransactionTemplate transactionTemplate;
+    private SpannerWriteMode writeMode;
+    private Timer commitSuccess;
+    private Timer commitFailure;
+    // writeAtLeastOnce has no async variant; the async pipeline parks a virtual thread on it
+    private ExecutorService blindWriteExecutor;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        writeMode = SpannerWriteMode.fromName(writeModeName);
+        commitSuccess = commitTimer("success");
+        commitFailure = commitTimer("failure");
+        if (writeMode == SpannerWriteMode.AT_LEAST_ONCE) {
+            blindWriteExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        }
+        logger.info("Spanner write mode: {}", writeMode.tagValue());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (blindWriteExecutor != null) {
+            blindWriteExecutor.shutdown();
+        }
+    }
+
+    /**
+     * Processes one payload on the calling thread.
+     *
+     * @throws com.benchmark.service.limit.PayloadRejectedException if the protocol is at its concurrency limit
+     */
+    @Override
     public String processPayload(InputPayload payload, String protocol) {
+        AdaptiveConcurrencyLimiter.Permit permit = concurrencyLimiter.acquire(protocol);
         try {
-            String correlationId = UUID.randomUUID().toString();
-            Instant startTime = Instant.now();
-            
-            logger.info("Processing {} payload with correlation ID: {}", protocol, correlationId);
+            return process(payload.getId(), payload.getContent(), payload.getTimestamp(), protocol);
+        } finally {
+            permit.release();
+        }
+    }
 
-            // 1. Save to Spanner database
-            InputPayloadEntity entity = new InputPayloadEntity();
-            entity.setId(payload.getId());
-            entity.setContent(payload.getContent());
-            
-            // Convert string timestamp to Instant
-            if (payload.getTimestamp() != null && !payload.getTimestamp().isEmpty()) {
-                try {
-                    entity.setTimestamp(Instant.parse(payload.getTimestamp()));
-                } catch (Exception e) {
-                    logger.warn("Failed to parse timestamp '{}', using current time", payload.getTimestamp());
-                    entity.setTimestamp(Instant.now());
-                }
+    private String process(String id, String content, String timestamp, String protocol) {
+        String previous = idempotencyCache.lookup(id);
+        if (previous != null) {
+            logger.debug("Duplicate {} payload {}, returning original result", protocol, id);
+            return previous;
+        }
+        try {
+            PreparedPayload prepared = prepare(id, content, timestamp, protocol);
+
+            String result = successMessage(prepared);
+            if (prepared.outboxMessage != null) {
+                // Commit the message with the payload; OutboxRelay forwards it to Kafka
+                save(List.of(prepared));
+                logger.debug("Saved payload and outbox message to Spanner with ID: {}", id);
+                completed(prepared, result);
             } else {
-                entity.setTimestamp(Instant.now());
+                // Save to Spanner, then send to Kafka directly without waiting for the ack;
+                // the result is remembered once the send succeeds, so a retry after a failed
+                // send is processed again
+                save(List.of(prepared));
+                logger.debug("Saved payload to Spanner with ID: {}", id);
+
+                publish(prepared, true).whenComplete((sent, error) -> {
+                    if (error == null) {
+                        completed(prepared, result);
+                    }
+                });
+                logger.debug("Sent message to Kafka topic: {} with correlation ID: {}",
+                        prepared.topicName, prepared.correlationId);
             }
+            return result;
             
-            entity.setProtocol(protocol);
-
-            repository.save(entity);
-            logger.info("Saved payload to Spanner with ID: {}", payload.getId());
-
-            // 2. Prepare and send Kafka message
-            OutgoingMqMessage mqMsg = new OutgoingMqMessage();
-            mqMsg.setUserId(payload.getId());
-            mqMsg.setUserName(payload.getContent()); // Use content instead of name
-            mqMsg.setNotificationType("NEW_PAYLOAD");
-            mqMsg.setCorrelationId(correlationId);
-            mqMsg.setProtocol(protocol);
-            mqMsg.setProcessingStartTime(startTime.toEpochMilli());
-            mqMsg.setTimestamp(Instant.now().toString());
-            
-            // Send to protocol-specific topic
-            String topicName = protocol.toLowerCase() + "-payload-topic";
-            kafkaTemplate.send(topicName, correlationId, objectMapper.writeValueAsString(mqMsg));
-            logger.info("Sent message to Kafka topic: {} with correlation ID: {}", topicName, correlationId);
+        } catch (Exception e) {
+            throw failure(protocol, e);
+        }
+    }
 
-            return "SUCCESS: Processed " + protocol + " payload with correlation ID: " + correlationId;
-            
+    /**
+     * Non-blocking variant of {@link #processPayload}: the Spanner commit and the Kafka
+     * send are chained on their async APIs and the caller's thread is released at once.
+     * When {@code payload.pipeline.async} is false the blocking pipeline runs on the
+     * offload pool in {@code offload} execution mode, otherwise on the calling thread
+     * and the returned future is already complete. Over the protocol's concurrency limit
+     * the future fails at once with a {@link com.benchmark.service.limit.PayloadRejectedException}.
+     */
+    @Override
+    public CompletableFuture<String> processPayloadAsync(InputPayload payload, String protocol) {
+        return limited(protocol, () -> processAsync(payload.getId(), payload.getContent(), payload.getTimestamp(), protocol));
+    }
+
+    /**
+     * Same as {@link #processPayloadAsync(InputPayload, String)} but reads the protobuf
+     * request directly, without copying it into a DTO first.
+     */
+    @Override
+    public CompletableFuture<String> processPayloadAsync(com.benchmark.service.grpc.InputPayload payload, String protocol) {
+        return limited(protocol, () -> processAsync(payload.getId(), payload.getContent(), payload.getTimestamp(), protocol));
+    }
+
+    private CompletableFuture<String> processAsync(String id, String content, String timestamp, String protocol) {
+        if (!asyncPipeline) {
+            return runBlocking(() -> process(id, content, timestamp, protocol), protocol);
+        }
+
+        String previous = idempotencyCache.lookup(id);
+        if (previous != null) {
+            return CompletableFuture.completedFuture(previous);
+        }
+
+        PreparedPayload prepared;
+        try {
+            prepared = prepare(id, content, timestamp, protocol);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(failure(protocol, e));
+        }
+
+        CompletableFuture<?> done = saveAsync(List.of(prepared));
+        if (prepared.outboxMessage == null) {
+            done = done.thenCompose(saved -> publish(prepared, false));
+        }
+        return done.handle((ignored, error) -> {
+            if (error != null) {
+                throw new CompletionException(failure(protocol, FutureUtils.unwrap(error)));
+            }
+            logger.debug("Processed {} payload asynchronously with correlation ID: {}",
+                    protocol, prepared.correlationId);
+            String result = successMessage(prepared);
+            completed(prepared, result);
+            return result;
+        });
+    }
+
+    /**
+     * Processes a batch with one Spanner mutation set for all payloads and pipelined Kafka
+     * sends. Returns one result per payload, in request order; a payload that cannot be
+     * mapped or published fails on its own, while a failed commit fails the whole batch.
+     */
+    @Override
+    public List<PayloadResponse> processPayloadBatch(List<InputPayload> payloads, String protocol) {
+        AdaptiveConcurrencyLimiter.Permit permit = concurrencyLimiter.acquire(protocol);
+        try {
+            return processBatch(payloads, protocol);
+        } finally {
+            permit.release();
+        }
+    }
+
+    private List<PayloadResponse> processBatch(List<InputPayload> payloads, String protocol) {
+        PayloadResponse[] results = new PayloadResponse[payloads.size()];
+        List<PreparedPayload> batch = prepareBatch(payloads, protocol, results);
+        if (batch.isEmpty()) {
+            return Arrays.asList(results);
+        }
+
+        try {
+            save(batch);
+            logger.debug("Saved batch of {} {} payloads to Spanner", batch.size(), protocol);
         } catch (Exception e) {
-            logger.error("Error processing {} payload: {}", protocol, e.getMessage(), e);
-            throw new RuntimeException("Failed to process " + protocol + " payload: " + e.getMessage(), e);
+            RuntimeException failure = failure(protocol, e);
+            for (PreparedPayload prepared : batch) {
+                results[prepared.index] = new PayloadResponse("error", failure.getMessage());
+            }
+            return Arrays.asList(results);
+        }
+
+        awaitPublished(batch, sendAll(batch, true), protocol, results);
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Non-blocking variant of {@link #processPayloadBatch}, following the same
+     * {@code payload.pipeline.async} rules as {@link #processPayloadAsync}.
+     */
+    @Override
+    public CompletableFuture<List<PayloadResponse>> processPayloadBatchAsync(List<InputPayload> payloads, String protocol) {
+        // A batch takes one slot: it is one request and one Spanner commit
+        return limited(protocol, () -> processBatchAsync(payloads, protocol));
+    }
+
+    private CompletableFuture<List<PayloadResponse>> processBatchAsync(List<InputPayload> payloads, String protocol) {
+        if (!asyncPipeline) {
+            return runBlocking(() -> processBatch(payloads, protocol), protocol);
+        }
+
+        PayloadResponse[] results = new PayloadResponse[payloads.size()];
+        List<PreparedPayload> batch = prepareBatch(payloads, protocol, results);
+        if (batch.isEmpty()) {
+            return CompletableFuture.completedFuture(Arrays.asList(results));
+        }
+
+        return saveAsync(batch).handle((saved, error) -> {
+            if (error != null) {
+                RuntimeException failure = failure(protocol, FutureUtils.unwrap(error));
+                for (PreparedPayload prepared : batch) {
+                    results[prepared.index] = new PayloadResponse("error", failure.getMessage());
+                }
+                return CompletableFuture.completedFuture(Arrays.asList(results));
+            }
+            List<CompletableFuture<?>> sends = sendAll(batch, false);
+            return CompletableFuture.allOf(sends.toArray(new CompletableFuture[0]))
+                    .handle((sent, sendError) -> {
+                        awaitPublished(batch, sends, protocol, results);
+                        return Arrays.asList(results);
+                    });
+        }).thenCompose(pending -> pending);
+    }
+
+    private List<PreparedPayload> prepareBatch(List<InputPayload> payloads, String protocol, PayloadResponse[] results) {
+        List<PreparedPayload> batch = new ArrayList<>(payloads.size());
+        for (int i = 0; i < payloads.size(); i++) {
+            try {
+                InputPayload payload = payloads.get(i);
+                String previous = idempotencyCache.lookup(payload.getId());
+                if (previous != null) {
+                    results[i] = new PayloadResponse("success", previous);
+                    continue;
+                }
+                PreparedPayload prepared = prepare(payload.getId(), payload.getContent(), payload.getTimestamp(), protocol);
+                prepared.index = i;
+                batch.add(prepared);
+            } catch (Exception e) {
+                results[i] = new PayloadResponse("error", failure(protocol, e).getMessage());
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * Hands every message of the batch to the producer before waiting on any of them, so
+     * they share producer batches. Outbox mode sends nothing here. Only a caller on its own
+     * thread may pass {@code blocking} and wait for in-flight permits.
+     */
+    private List<CompletableFuture<?>> sendAll(List<PreparedPayload> batch, boolean blocking) {
+        List<CompletableFuture<?>> sends = new ArrayList<>(batch.size());
+        for (PreparedPayload prepared : batch) {
+            if (prepared.outboxMessage != null) {
+                sends.add(CompletableFuture.completedFuture(null));
+                continue;
+            }
+            try {
+                sends.add(publish(prepared, blocking));
+            } catch (Exception e) {
+                sends.add(CompletableFuture.failedFuture(e));
+            }
+        }
+        return sends;
+    }
+
+    private void awaitPublished(List<PreparedPayload> batch, List<CompletableFuture<?>> sends,
+                                String protocol, PayloadResponse[] results) {
+        for (int i = 0; i < batch.size(); i++) {
+            PreparedPayload prepared = batch.get(i);
+            try {
+                sends.get(i).join();
+                String result = successMessage(prepared);
+                completed(prepared, result);
+                results[prepared.index] = new PayloadResponse("success", result);
+            } catch (Exception e) {
+                results[prepared.index] = new PayloadResponse("error",
+                        failure(protocol, FutureUtils.unwrap(e)).getMessage());
+            }
+        }
+    }
+
+    /**
+     * Runs the work under a slot of the protocol's concurrency limit, released when the
+     * returned future completes. Rejections fail the future without running the work.
+     */
+    private <T> CompletableFuture<T> limited(String protocol, Supplier<CompletableFuture<T>> work) {
+        AdaptiveConcurrencyLimiter.Permit permit;
+        try {
+            permit = concurrencyLimiter.acquire(protocol);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<T> result;
+        try {
+            result = work.get();
+        } catch (RuntimeException e) {
+            permit.release();
+            throw e;
+        }
+        return result.whenComplete((value, error) -> permit.release());
+    }
+
+    private <T> CompletableFuture<T> runBlocking(Supplier<T> work, String protocol) {
+        Executor offloadExecutor = executionMode.getOffloadExecutor();
+        try {
+            if (offloadExecutor != null) {
+                return CompletableFuture.supplyAsync(work, offloadExecutor);
+            }
+            return CompletableFuture.completedFuture(work.get());
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(failure(protocol, e));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private PreparedPayload prepare(String id, String content, String timestamp, String protocol)
+            throws JsonProcessingException {
+        long start = stageMetrics.start();
+        try {
+            PreparedPayload prepared = map(id, content, timestamp, protocol);
+            stageMetrics.record(PayloadStageMetrics.PREPARE, protocol, start, null);
+            return prepared;
+        } catch (JsonProcessingException | RuntimeException e) {
+            stageMetrics.record(PayloadStageMetrics.PREPARE, protocol, start, e);
+            throw e;
+        }
+    }
+
+    private PreparedPayload map(String id, String content, String timestamp, String protocol)
+            throws JsonProcessingException {
+        Instant startTime = Instant.now();
+        String correlationId = CorrelationIds.next(startTime.toEpochMilli());
+
+        logger.debug("Processing {} payload with correlation ID: {}", protocol, correlationId);
+
+        // 1. Map to Spanner entity and Kafka message in one pass
+        InputPayloadEntity entity = PayloadMapper.toEntity(id, content, timestamp, protocol, startTime);
+        OutgoingMqMessage mqMsg = PayloadMapper.toMessage(id, content, correlationId, protocol, startTime);
+
+        // 2. Encode for the protocol-specific topic
+        String topicName = PayloadMapper.topicFor(protocol);
+        byte[] message = messageCodec.encode(mqMsg);
+        String contentType = messageCodec.getContentType();
+
+        OutboxMessageEntity outboxMessage = null;
+        if (outboxRelay.isEnabled()) {
+            outboxMessage = new OutboxMessageEntity();
+            outboxMessage.setId(correlationId);
+            outboxMessage.setTopic(topicName);
+            outboxMessage.setMessageKey(correlationId);
+            outboxMessage.setPayload(ByteArray.copyFrom(message));
+            outboxMessage.setContentType(contentType);
+            outboxMessage.setCreatedAt(startTime);
+        }
+
+        return new PreparedPayload(protocol, correlationId, entity, topicName, message, contentType, outboxMessage);
+    }
+
+    /**
+     * Writes the payloads, and their outbox messages if any, in a single Spanner commit.
+     */
+    private void save(List<PreparedPayload> batch) {
+        String protocol = batch.get(0).protocol;
+        long start = stageMetrics.start();
+        try {
+            commit(batch);
+            stageMetrics.record(PayloadStageMetrics.SPANNER, protocol, start, null);
+        } catch (RuntimeException e) {
+            stageMetrics.record(PayloadStageMetrics.SPANNER, protocol, start, e);
+            throw e;
+        }
+    }
+
+    private void commit(List<PreparedPayload> batch) {
+        if (batchWriter.isEnabled()) {
+            // Shares one Spanner commit with concurrent callers
+            batchWriter.submit(toMutations(batch)).join();
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            switch (writeMode) {
+                case TRANSACTION -> transactionTemplate.executeWithoutResult(status -> {
+                    for (PreparedPayload prepared : batch) {
+                        repository.save(prepared.entity);
+                        if (prepared.outboxMessage != null) {
+                            outboxRepository.save(prepared.outboxMessage);
+                        }
+                    }
+                });
+                case INSERT, INSERT_OR_UPDATE -> databaseClient.write(toMutations(batch));
+                case AT_LEAST_ONCE -> databaseClient.writeAtLeastOnce(toMutations(batch));
+            }
+            commitSuccess.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        } catch (RuntimeException e) {
+            commitFailure.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private CompletableFuture<Void> saveAsync(List<PreparedPayload> batch) {
+        String protocol = batch.get(0).protocol;
+        long start = stageMetrics.start();
+        return commitAsync(batch).whenComplete((saved, error) ->
+                stageMetrics.record(PayloadStageMetrics.SPANNER, protocol, start, error));
+    }
+
+    private CompletableFuture<Void> commitAsync(List<PreparedPayload> batch) {
+        List<Mutation> mutations = toMutations(batch);
+        if (batchWriter.isEnabled()) {
+            return batchWriter.submit(mutations);
+        }
+        long start = System.nanoTime();
+        CompletableFuture<Void> saved = writeMode == SpannerWriteMode.AT_LEAST_ONCE
+                ? CompletableFuture.runAsync(() -> databaseClient.writeAtLeastOnce(mutations), blindWriteExecutor)
+                : runTransactionAsync(mutations);
+        return saved.whenComplete((ignored, error) ->
+                (error == null ? commitSuccess : commitFailure).record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+    }
+
+    // Mutations only, no reads: in insert modes the same blind write as DatabaseClient.write
+    private CompletableFuture<Void> runTransactionAsync(List<Mutation> mutations) {
+        CompletableFuture<Void> saved = new CompletableFuture<>();
+        ApiFuture<Void> commit = databaseClient.runAsync().runAsync(txn -> {
+            txn.buffer(mutations);
+            return ApiFutures.<Void>immediateFuture(null);
+        }, MoreExecutors.directExecutor());
+        ApiFutures.addCallback(commit, new ApiFutureCallback<Void>() {
+            @Override
+            public void onFailure(Throwable t) {
+                saved.completeExceptionally(t);
+            }
+
+            @Override
+            public void onSuccess(Void result) {
+                saved.complete(null);
+            }
+        }, MoreExecutors.directExecutor());
+        return saved;
+    }
+
+    // The outbox row follows the payload: a replayed at-least-once commit must not fail on it
+    private List<Mutation> toMutations(List<PreparedPayload> batch) {
+        boolean insert = writeMode == SpannerWriteMode.INSERT;
+        List<Mutation> mutations = new ArrayList<>();
+        for (PreparedPayload prepared : batch) {
+            mutations.addAll(insert ? mutationFactory.insert(prepared.entity) : mutationFactory.upsert(prepared.entity));
+            if (prepared.outboxMessage != null) {
+                mutations.addAll(insert
+                        ? mutationFactory.insert(prepared.outboxMessage)
+                        : mutationFactory.upsert(prepared.outboxMessage));
+            }
+        }
+        return mutations;
+    }
+
+    // Committed and published: later duplicates and look-ups are answered from memory
+    private void completed(PreparedPayload prepared, String result) {
+        idempotencyCache.remember(prepared.entity.getId(), result);
+        queryService.cache(prepared.entity);
+    }
+
+    private Timer commitTimer(String outcome) {
+        return Timer.builder("spanner.commit")
+                .description("Latency of an unbatched Spanner payload commit")
+                .tag("mode", writeMode.tagValue())
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private CompletableFuture<SendResult<String, byte[]>> publish(PreparedPayload prepared, boolean blocking) {
+        long start = stageMetrics.start();
+        return kafkaPublisher.publishOrSpool(toRecord(prepared), blocking).whenComplete((sent, error) ->
+                stageMetrics.record(PayloadStageMetrics.KAFKA, prepared.protocol, start, error));
+    }
+
+    private ProducerRecord<String, byte[]> toRecord(PreparedPayload prepared) {
+        return OutgoingMessageCodec.record(prepared.topicName, prepared.correlationId, prepared.message, prepared.contentType);
+    }
+
+    private String successMessage(PreparedPayload prepared) {
+        return "SUCCESS: Processed " + prepared.protocol + " payload with correlation ID: " + prepared.correlationId;
+    }
+
+    // The adapters log the failed request once through RequestLogger
+    private RuntimeException failure(String protocol, Throwable e) {
+        logger.debug("Error processing {} payload: {}", protocol, e.getMessage(), e);
+        return new RuntimeException("Failed to process " + protocol + " payload: " + e.getMessage(), e);
+    }
+
+    private static final class PreparedPayload {
+        private final String protocol;
+        private final String correlationId;
+        private final InputPayloadEntity entity;
+        private final String topicName;
+        private final byte[] message;
+        private final String contentType;
+        private final OutboxMessageEntity outboxMessage;
+        private int index; // position in a batch request
+
+        private PreparedPayload(String protocol, String correlationId, InputPayloadEntity entity,
+                                String topicName, byte[] message, String contentType,
+                                OutboxMessageEntity outboxMessage) {
+            this.protocol = protocol;
+            this.correlationId = correlationId;
+            this.entity = entity;
+            this.topicName = topicName;
+            this.message = message;
+            this.contentType = contentType;
+            this.outboxMessage = outboxMessage;
         }
     }
-} 
\ No newline at end of file
+}
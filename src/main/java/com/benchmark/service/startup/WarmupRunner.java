@@ -0,0 +1,257 @@
+package com.benchmark.service.startup;
+
+import com.benchmark.service.dto.OutgoingMqMessage;
+import com.benchmark.service.entity.InputPayloadEntity;
+import com.benchmark.service.messaging.KafkaPayloadPublisher;
+import com.benchmark.service.messaging.OutgoingMessageCodec;
+import com.benchmark.service.routes.RestPayloadBinding;
+import com.benchmark.service.util.CorrelationIds;
+import com.benchmark.service.util.GrpcPayloadConverter;
+import com.benchmark.service.util.PayloadMapper;
+import com.google.cloud.spanner.DatabaseClient;
+import com.google.cloud.spanner.ResultSet;
+import com.google.cloud.spanner.Statement;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.support.DefaultExchange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.actuate.info.Info;
+import org.springframework.boot.actuate.info.InfoContributor;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Warms the service up before it reports ready. Spring Boot runs {@link ApplicationRunner}s
+ * before publishing {@code ReadinessState.ACCEPTING_TRAFFIC}, so while this runs
+ * {@code /actuator/health/readiness} is still out of service and no traffic is routed to the pod.
+ * <ol>
+ *   <li>{@code spanner} - concurrent {@code SELECT 1} queries so sessions and gRPC channels
+ *       to Spanner exist before the first payload commit.</li>
+ *   <li>{@code kafka} - producer metadata for every protocol topic.</li>
+ *   <li>{@code codecs} - synthetic payloads through the REST body binding (JSON and protobuf),
+ *       the gRPC messages, the entity/message mapping and the Kafka encoding, in rounds until a
+ *       round no longer triggers JIT compilation.</li>
+ * </ol>
+ * The Spanner and Kafka steps only run for the {@code spanner-kafka} payload processor.
+ * Nothing is written to Spanner or sent to Kafka. A failed or timed-out step is reported and
+ * skipped; readiness is never held back beyond {@code payload.warmup.max-duration-ms} per step.
+ * The outcome is logged, timed as {@code payload.warmup} and published under {@code warmup} in
+ * {@code /actuator/info}.
+ */
+@Component
+public class WarmupRunner implements ApplicationRunner, InfoContributor {
+
+    private static final Logger logger = LoggerFactory.getLogger(WarmupRunner.class);
+
+    private static final List<String> PROTOCOLS = List.of("REST", "gRPC-Unary", "gRPC-Streaming", "gRPC", "gRPC-Batch");
+
+    @Value("${payload.warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${payload.processor:spanner-kafka}")
+    private String processor;
+
+    @Value("${payload.warmup.spanner-queries:16}")
+    private int spannerQueries;
+
+    @Value("${payload.warmup.max-duration-ms:20000}")
+    private long maxDurationMs;
+
+    @Value("${payload.warmup.codec-round-size:500}")
+    private int codecRoundSize;
+
+    // A round that spends at most this long in the JIT compiler counts as compiled
+    @Value("${payload.warmup.jit-quiet-ms:5}")
+    private long jitQuietMs;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private KafkaPayloadPublisher kafkaPublisher;
+
+    @Autowired
+    private OutgoingMessageCodec messageCodec;
+
+    @Autowired
+    private RestPayloadBinding payloadBinding;
+
+    @Autowired
+    private CamelContext camelContext;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, Object> report = new LinkedHashMap<>();
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            report.put("enabled", false);
+            return;
+        }
+        long start = System.nanoTime();
+        // One thread runs the step, the others the concurrent Spanner queries
+        ExecutorService executor = Executors.newFixedThreadPool(spannerQueries + 1, runnable -> {
+            Thread thread = new Thread(runnable, "warmup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            if ("spanner-kafka".equals(processor)) {
+                step("spanner", () -> warmSpanner(executor), executor);
+                step("kafka", this::warmKafka, executor);
+            }
+            step("codecs", this::warmCodecs, executor);
+        } finally {
+            executor.shutdownNow();
+        }
+        long totalMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        report.put("durationMs", totalMs);
+        logger.info("Warm-up finished in {} ms before readiness: {}", totalMs, report);
+    }
+
+    @Override
+    public void contribute(Info.Builder builder) {
+        builder.withDetail("warmup", report);
+    }
+
+    private String warmSpanner(ExecutorService executor) {
+        List<CompletableFuture<Void>> queries = new ArrayList<>(spannerQueries);
+        for (int i = 0; i < spannerQueries; i++) {
+            queries.add(CompletableFuture.runAsync(() -> {
+                try (ResultSet resultSet = databaseClient.singleUse().executeQuery(Statement.of("SELECT 1"))) {
+                    while (resultSet.next()) {
+                        // drain
+                    }
+                }
+            }, executor));
+        }
+        CompletableFuture.allOf(queries.toArray(new CompletableFuture[0])).join();
+        return spannerQueries + " concurrent queries";
+    }
+
+    private String warmKafka() {
+        int partitions = 0;
+        for (String protocol : PROTOCOLS) {
+            partitions += kafkaPublisher.partitionsFor(PayloadMapper.topicFor(protocol)).size();
+        }
+        return PROTOCOLS.size() + " topics, " + partitions + " partitions";
+    }
+
+    private String warmCodecs() {
+        CompilationMXBean jit = ManagementFactory.getCompilationMXBean();
+        boolean jitObservable = jit != null && jit.isCompilationTimeMonitoringSupported();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxDurationMs);
+        int rounds = 0;
+        int quietRounds = 0;
+        // Two consecutive quiet rounds, or a fixed number when compile time cannot be observed
+        while (System.nanoTime() < deadline && (jitObservable ? quietRounds < 2 : rounds < 20)) {
+            long compileBefore = jitObservable ? jit.getTotalCompilationTime() : 0;
+            for (int i = 0; i < codecRoundSize; i++) {
+                codecIteration(i);
+            }
+            rounds++;
+            if (jitObservable) {
+                quietRounds = jit.getTotalCompilationTime() - compileBefore <= jitQuietMs ? quietRounds + 1 : 0;
+            }
+        }
+        return rounds * codecRoundSize + " synthetic payloads in " + rounds + " rounds"
+                + (jitObservable && quietRounds < 2 ? ", JIT still compiling at deadline" : "");
+    }
+
+    private void codecIteration(int i) {
+        try {
+            String id = "warmup-" + i;
+            String protocol = PROTOCOLS.get(i % PROTOCOLS.size());
+            Instant now = Instant.now();
+            String correlationId = CorrelationIds.next(now.toEpochMilli());
+
+            com.benchmark.service.grpc.InputPayload proto = com.benchmark.service.grpc.InputPayload.newBuilder()
+                    .setId(id)
+                    .setContent("Warm-up payload content")
+                    .setTimestamp(now.toString())
+                    .setProtocol(protocol)
+                    .build();
+            proto = com.benchmark.service.grpc.InputPayload.parseFrom(proto.toByteArray());
+            com.benchmark.service.grpc.PayloadResponse.newBuilder()
+                    .setStatus("success")
+                    .setMessage(correlationId)
+                    .setId(id)
+                    .build()
+                    .toByteArray();
+
+            // REST body binding, both encodings
+            Exchange json = new DefaultExchange(camelContext);
+            json.getIn().setHeader(Exchange.CONTENT_TYPE, RestPayloadBinding.JSON_CONTENT_TYPE);
+            json.getIn().setBody(("{\"id\":\"" + id + "\",\"content\":\"Warm-up payload content\",\"timestamp\":\""
+                    + now + "\",\"protocol\":\"REST\"}").getBytes(StandardCharsets.UTF_8));
+            payloadBinding.readPayload(json);
+            payloadBinding.writeResponse(json, "success", correlationId);
+
+            Exchange protobuf = new DefaultExchange(camelContext);
+            protobuf.getIn().setHeader(Exchange.CONTENT_TYPE, RestPayloadBinding.PROTOBUF_CONTENT_TYPE);
+            protobuf.getIn().setBody(proto.toByteArray());
+            payloadBinding.readPayload(protobuf);
+            payloadBinding.writeResponse(protobuf, "success", correlationId);
+
+            // Mapping and Kafka encoding as done per payload
+            InputPayloadEntity entity = PayloadMapper.toEntity(proto.getId(), proto.getContent(), proto.getTimestamp(), protocol, now);
+            OutgoingMqMessage message = PayloadMapper.toMessage(proto.getId(), proto.getContent(), correlationId, protocol, now);
+            messageCodec.encode(message, OutgoingMessageCodec.Format.JSON);
+            messageCodec.encode(message, OutgoingMessageCodec.Format.PROTO);
+            PayloadMapper.topicFor(protocol);
+            GrpcPayloadConverter.toProto(entity);
+            PayloadMapper.toDto(entity);
+        } catch (Exception e) {
+            throw new IllegalStateException("Codec warm-up failed: " + e.getMessage(), e);
+        }
+    }
+
+    private void step(String name, Supplier<String> body, ExecutorService executor) {
+        long start = System.nanoTime();
+        String outcome = "success";
+        try {
+            // Run with a deadline so an unreachable dependency cannot hold readiness back
+            String detail = CompletableFuture.supplyAsync(body, executor)
+                    .get(maxDurationMs + 1000, TimeUnit.MILLISECONDS);
+            report.put(name, detail + " in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+        } catch (TimeoutException e) {
+            outcome = "timeout";
+            report.put(name, "timed out after " + maxDurationMs + " ms");
+            logger.warn("Warm-up step {} timed out", name);
+        } catch (Exception e) {
+            outcome = "failure";
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            report.put(name, "failed: " + cause.getMessage());
+            logger.warn("Warm-up step {} failed: {}", name, cause.getMessage());
+        }
+        Timer.builder("payload.warmup")
+                .description("Duration of a startup warm-up step")
+                .tag("step", name)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+}
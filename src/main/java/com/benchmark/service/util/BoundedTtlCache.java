@@ -0,0 +1,137 @@
+package com.benchmark.service.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Size- and TTL-bounded map split into lock-striped segments. Each segment is an
+ * access-ordered LRU holding at most {@code maxSize / stripes} entries; entries older than
+ * the TTL are dropped when read and swept from the LRU end on write. Threads only contend
+ * when their keys hash to the same segment.
+ */
+public class BoundedTtlCache<K, V> {
+
+    private final Segment<K, V>[] segments;
+    private final long ttlNanos;
+    private final LongAdder sizeEvictions = new LongAdder();
+    private final LongAdder expiredEvictions = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    public BoundedTtlCache(int maxSize, long ttl, TimeUnit unit, int stripes) {
+        if (maxSize <= 0 || stripes <= 0) {
+            throw new IllegalArgumentException("maxSize and stripes must be positive");
+        }
+        int stripeCount = Integer.highestOneBit(Math.min(stripes, maxSize));
+        int perSegment = Math.max(1, maxSize / stripeCount);
+        this.ttlNanos = unit.toNanos(ttl);
+        this.segments = new Segment[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            segments[i] = new Segment<>(perSegment);
+        }
+    }
+
+    /**
+     * Returns the live value for the key, or null if absent or expired.
+     */
+    public V get(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        long now = System.nanoTime();
+        segment.lock.lock();
+        try {
+            Entry<V> entry = segment.map.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (now - entry.writtenAt > ttlNanos) {
+                segment.map.remove(key);
+                expiredEvictions.increment();
+                return null;
+            }
+            return entry.value;
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    public void put(K key, V value) {
+        Segment<K, V> segment = segmentFor(key);
+        long now = System.nanoTime();
+        segment.lock.lock();
+        try {
+            segment.map.put(key, new Entry<>(value, now));
+            // Sweep expired entries from the least recently used end
+            Iterator<Entry<V>> oldest = segment.map.values().iterator();
+            while (oldest.hasNext()) {
+                if (now - oldest.next().writtenAt <= ttlNanos) {
+                    break;
+                }
+                oldest.remove();
+                expiredEvictions.increment();
+            }
+            if (segment.map.size() > segment.capacity) {
+                Iterator<Entry<V>> eldest = segment.map.values().iterator();
+                eldest.next();
+                eldest.remove();
+                sizeEvictions.increment();
+            }
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    public void remove(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            segment.map.remove(key);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            segment.lock.lock();
+            try {
+                size += segment.map.size();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    /** Entries dropped because their segment was full. */
+    public long sizeEvictions() {
+        return sizeEvictions.sum();
+    }
+
+    /** Entries dropped because they outlived the TTL. */
+    public long expiredEvictions() {
+        return expiredEvictions.sum();
+    }
+
+    private Segment<K, V> segmentFor(K key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return segments[h & (segments.length - 1)];
+    }
+
+    private static final class Segment<K, V> {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final int capacity;
+        private final LinkedHashMap<K, Entry<V>> map;
+
+        private Segment(int capacity) {
+            this.capacity = capacity;
+            this.map = new LinkedHashMap<>(16, 0.75f, true);
+        }
+    }
+
+    private record Entry<V>(V value, long writtenAt) {
+    }
+}
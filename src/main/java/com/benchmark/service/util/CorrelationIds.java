@@ -0,0 +1,22 @@
+package com.benchmark.service.util;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class CorrelationIds {
+    /**
+     * Returns a time-ordered UUID (version 7 layout: 48-bit Unix millis followed by random
+     * bits). The random part comes from {@link ThreadLocalRandom}, so unlike
+     * {@link UUID#randomUUID()} callers never contend on a shared SecureRandom.
+     */
+    public static String next() {
+        return next(System.currentTimeMillis());
+    }
+
+    public static String next(long epochMillis) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long msb = (epochMillis << 16) | 0x7000L | (random.nextInt() & 0x0FFFL);
+        long lsb = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(msb, lsb).toString();
+    }
+}
@@ -0,0 +1,18 @@
+package com.benchmark.service.util;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+public class FutureUtils {
+    /**
+     * Strips the CompletionException/ExecutionException wrappers added by CompletableFuture.
+     */
+    public static Throwable unwrap(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+}
@@ -1,5 +1,8 @@
 package com.benchmark.service.util;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class GrpcPayloadConverter {
     public static com.benchmark.service.dto.InputPayload fromProto(com.benchmark.service.grpc.InputPayload proto) {
         com.benchmark.service.dto.InputPayload dto = new com.benchmark.service.dto.InputPayload();
@@ -10,10 +13,53 @@ public class GrpcPayloadConverter {
         return dto;
     }
     
+    public static com.benchmark.service.grpc.InputPayload toProto(com.benchmark.service.entity.InputPayloadEntity entity) {
+        com.benchmark.service.grpc.InputPayload.Builder proto = com.benchmark.service.grpc.InputPayload.newBuilder()
+            .setId(entity.getId());
+        if (entity.getContent() != null) {
+            proto.setContent(entity.getContent());
+        }
+        if (entity.getTimestamp() != null) {
+            proto.setTimestamp(entity.getTimestamp().toString());
+        }
+        if (entity.getProtocol() != null) {
+            proto.setProtocol(entity.getProtocol());
+        }
+        return proto.build();
+    }
+    
     public static com.benchmark.service.grpc.PayloadResponse createSuccessResponse() {
         return com.benchmark.service.grpc.PayloadResponse.newBuilder()
             .setStatus("OK")
             .setMessage("Processed successfully")
             .build();
     }
+
+    public static List<com.benchmark.service.dto.InputPayload> fromProto(com.benchmark.service.grpc.InputPayloadBatch proto) {
+        List<com.benchmark.service.dto.InputPayload> dtos = new ArrayList<>(proto.getPayloadsCount());
+        for (com.benchmark.service.grpc.InputPayload payload : proto.getPayloadsList()) {
+            dtos.add(fromProto(payload));
+        }
+        return dtos;
+    }
+
+    public static com.benchmark.service.grpc.PayloadBatchResponse toBatchResponse(
+            com.benchmark.service.grpc.InputPayloadBatch request, List<com.benchmark.service.dto.PayloadResponse> results) {
+        com.benchmark.service.grpc.PayloadBatchResponse.Builder response = com.benchmark.service.grpc.PayloadBatchResponse.newBuilder();
+        int successCount = 0;
+        for (int i = 0; i < results.size(); i++) {
+            com.benchmark.service.dto.PayloadResponse result = results.get(i);
+            if ("success".equals(result.getStatus())) {
+                successCount++;
+            }
+            response.addResults(com.benchmark.service.grpc.PayloadResponse.newBuilder()
+                .setStatus(result.getStatus())
+                .setMessage(result.getMessage())
+                .setId(request.getPayloads(i).getId()));
+        }
+        return response
+            .setSuccessCount(successCount)
+            .setFailureCount(results.size() - successCount)
+            .build();
+    }
 }
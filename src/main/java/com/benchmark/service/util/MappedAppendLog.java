@@ -0,0 +1,295 @@
+package com.benchmark.service.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Bounded append-only log in a single memory-mapped file, used as a ring so space is
+ * reclaimed as records are consumed. Appending copies the record into the mapping; nothing
+ * is written through a system call, so an append costs about as much as a memory copy.
+ * <p>Layout: a header holding the read position, then records of
+ * {@code [length][crc32c][sequence][data]} with consecutive sequence numbers. A record that
+ * does not fit before the end of the file wraps to the front, marked by a length of -1.
+ * <p>Crash safety: the read position is written to two alternating header slots, each with
+ * its own generation and checksum, so a torn header write leaves the previous one valid. The
+ * write position is not stored; on open the records after the read position are scanned and
+ * the log ends at the first record with a bad checksum or an unexpected sequence number, which
+ * drops a torn final append and stale records from an earlier lap. Everything appended
+ * survives a process crash (the page cache holds it); {@link #force()} bounds what an
+ * operating system crash can lose. Consumption is at-least-once: records read but not yet
+ * {@link #commit committed} are read again after a restart.
+ * <p>Thread-safe; all operations take the log's monitor. The file size is fixed when the file
+ * is created and limited to 2 GiB by {@link MappedByteBuffer}.
+ */
+public final class MappedAppendLog implements Closeable {
+
+    private static final int MAGIC = 0x53504F4C;
+    // generation (long), read sequence (long), read position (int), crc (int)
+    private static final int SLOT_SIZE = 24;
+    private static final int HEADER_SIZE = 8 + 2 * SLOT_SIZE;
+    // length (int), crc (int), sequence (long)
+    private static final int RECORD_HEADER = 16;
+    private static final int WRAP = -1;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+
+    private long generation;
+    private int readPos;
+    private long readSeq;
+    private int writePos;
+    private long writeSeq;
+    private boolean dirty;
+
+    private MappedAppendLog(FileChannel channel, int capacity) throws IOException {
+        this.channel = channel;
+        this.capacity = capacity;
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+
+    /**
+     * Opens the log at {@code file}, creating it with {@code capacityBytes} if it does not exist.
+     * An existing file keeps its size, and records left in it are available to read again.
+     */
+    public static MappedAppendLog open(Path file, int capacityBytes) throws IOException {
+        if (capacityBytes < HEADER_SIZE + RECORD_HEADER + 1) {
+            throw new IllegalArgumentException("capacity too small: " + capacityBytes);
+        }
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long existing = channel.size();
+            if (existing > Integer.MAX_VALUE) {
+                throw new IOException(file + " is larger than 2 GiB");
+            }
+            MappedAppendLog log = new MappedAppendLog(channel, existing > 0 ? (int) existing : capacityBytes);
+            if (existing == 0) {
+                log.initialise();
+            } else {
+                log.recover(file);
+            }
+            return log;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Appends a record. Returns false, leaving the log unchanged, when it does not fit in the
+     * space not yet consumed.
+     */
+    public synchronized boolean append(byte[] data) {
+        if (data.length == 0) {
+            throw new IllegalArgumentException("empty record");
+        }
+        if (writeSeq == readSeq && writePos != HEADER_SIZE) {
+            // Empty after recovery: start at the front, where the whole file is free
+            readPos = HEADER_SIZE;
+            writePos = HEADER_SIZE;
+            writeHeader();
+        }
+        int size = RECORD_HEADER + data.length;
+        int pos = writePos;
+        if (pos >= readPos) {
+            if (pos + size > capacity) {
+                // Wrap to the front; the writer never catches up with the reader exactly,
+                // so equal positions always mean empty
+                if (HEADER_SIZE + size >= readPos) {
+                    return false;
+                }
+                if (capacity - pos >= 4) {
+                    buffer.putInt(pos, WRAP);
+                }
+                pos = HEADER_SIZE;
+            }
+        } else if (pos + size >= readPos) {
+            return false;
+        }
+
+        buffer.putLong(pos + 8, writeSeq);
+        buffer.put(pos + RECORD_HEADER, data);
+        buffer.putInt(pos + 4, checksum(pos, data.length));
+        // Length last: an append torn before this point still reads as the old contents
+        buffer.putInt(pos, data.length);
+        writePos = pos + size;
+        writeSeq++;
+        dirty = true;
+        return true;
+    }
+
+    /**
+     * Returns up to {@code max} records from the read position without consuming them.
+     */
+    public synchronized List<Entry> read(int max) {
+        List<Entry> entries = new ArrayList<>(Math.min(max, size()));
+        int pos = readPos;
+        long seq = readSeq;
+        while (entries.size() < max && seq < writeSeq) {
+            if (pos + RECORD_HEADER > capacity || buffer.getInt(pos) == WRAP) {
+                pos = HEADER_SIZE;
+                continue;
+            }
+            int length = buffer.getInt(pos);
+            byte[] data = new byte[length];
+            buffer.get(pos + RECORD_HEADER, data);
+            pos += RECORD_HEADER + length;
+            entries.add(new Entry(seq++, data, pos));
+        }
+        return entries;
+    }
+
+    /**
+     * Consumes every record up to and including {@code last} and persists the read position.
+     */
+    public synchronized void commit(Entry last) {
+        if (last.sequence() < readSeq || last.sequence() >= writeSeq) {
+            throw new IllegalArgumentException("record " + last.sequence() + " is not pending");
+        }
+        readSeq = last.sequence() + 1;
+        readPos = last.nextPosition();
+        if (readSeq == writeSeq) {
+            // Empty: start again at the front so the next records are contiguous
+            readPos = HEADER_SIZE;
+            writePos = HEADER_SIZE;
+        }
+        writeHeader();
+    }
+
+    /**
+     * Records appended and not yet committed.
+     */
+    public synchronized int size() {
+        return (int) (writeSeq - readSeq);
+    }
+
+    public synchronized boolean isEmpty() {
+        return writeSeq == readSeq;
+    }
+
+    /**
+     * Bytes held by pending records, including record headers.
+     */
+    public synchronized long usedBytes() {
+        return writePos >= readPos
+                ? writePos - readPos
+                : (long) (capacity - readPos) + (writePos - HEADER_SIZE);
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Writes changes made since the last call through to the storage device.
+     */
+    public synchronized void force() {
+        if (dirty) {
+            buffer.force();
+            dirty = false;
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    private void initialise() {
+        buffer.putInt(0, MAGIC);
+        readPos = HEADER_SIZE;
+        writePos = HEADER_SIZE;
+        writeHeader();
+        force();
+    }
+
+    private void recover(Path file) throws IOException {
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IOException(file + " is not a spool file");
+        }
+        boolean slot0 = readSlot(0);
+        boolean slot1 = readSlot(1);
+        if (!slot0 && !slot1) {
+            throw new IOException(file + " has no valid header");
+        }
+        int pos = readPos;
+        long seq = readSeq;
+        boolean wrapped = false;
+        while (true) {
+            if (pos + RECORD_HEADER > capacity || buffer.getInt(pos) == WRAP) {
+                if (wrapped) {
+                    break;
+                }
+                pos = HEADER_SIZE;
+                wrapped = true;
+                continue;
+            }
+            int length = buffer.getInt(pos);
+            if (length <= 0 || pos + RECORD_HEADER + length > capacity
+                    || buffer.getLong(pos + 8) != seq
+                    || buffer.getInt(pos + 4) != checksum(pos, length)) {
+                break;
+            }
+            pos += RECORD_HEADER + length;
+            seq++;
+            wrapped = false;
+        }
+        writePos = pos;
+        writeSeq = seq;
+    }
+
+    // Loads the slot if it is valid and newer than what was loaded so far
+    private boolean readSlot(int slot) {
+        int offset = 8 + slot * SLOT_SIZE;
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset, SLOT_SIZE - 4));
+        if ((int) crc.getValue() != buffer.getInt(offset + SLOT_SIZE - 4)) {
+            return false;
+        }
+        long slotGeneration = buffer.getLong(offset);
+        if (slotGeneration > generation) {
+            generation = slotGeneration;
+            readSeq = buffer.getLong(offset + 8);
+            readPos = buffer.getInt(offset + 16);
+        }
+        return true;
+    }
+
+    private void writeHeader() {
+        generation++;
+        int offset = 8 + (int) (generation % 2) * SLOT_SIZE;
+        buffer.putLong(offset, generation);
+        buffer.putLong(offset + 8, readSeq);
+        buffer.putInt(offset + 16, readPos);
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset, SLOT_SIZE - 4));
+        buffer.putInt(offset + SLOT_SIZE - 4, (int) crc.getValue());
+        dirty = true;
+    }
+
+    // Covers the sequence number and the data
+    private int checksum(int pos, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(pos + 8, 8 + length));
+        return (int) crc.getValue();
+    }
+
+    /**
+     * A record read from the log; pass the last one handled to {@link #commit(Entry)}.
+     */
+    public record Entry(long sequence, byte[] data, int nextPosition) {
+    }
+}
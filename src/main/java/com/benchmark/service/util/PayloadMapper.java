@@ -0,0 +1,75 @@
+package com.benchmark.service.util;
+
+import com.benchmark.service.dto.InputPayload;
+import com.benchmark.service.dto.OutgoingMqMessage;
+import com.benchmark.service.entity.InputPayloadEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps request fields, taken straight from the protobuf or the bound JSON DTO, to the
+ * Spanner entity and the Kafka notification. Callers read the clock once and pass it in.
+ */
+public class PayloadMapper {
+
+    private static final Logger logger = LoggerFactory.getLogger(PayloadMapper.class);
+
+    public static final String NOTIFICATION_TYPE = "NEW_PAYLOAD";
+
+    private static final Map<String, String> TOPICS = new ConcurrentHashMap<>();
+
+    public static InputPayloadEntity toEntity(String id, String content, String timestamp, String protocol, Instant now) {
+        InputPayloadEntity entity = new InputPayloadEntity();
+        entity.setId(id);
+        entity.setContent(content);
+        entity.setTimestamp(parseTimestamp(timestamp, now));
+        entity.setProtocol(protocol);
+        return entity;
+    }
+
+    public static OutgoingMqMessage toMessage(String id, String content, String correlationId, String protocol, Instant now) {
+        OutgoingMqMessage message = new OutgoingMqMessage();
+        message.setUserId(id);
+        message.setUserName(content); // Use content instead of name
+        message.setNotificationType(NOTIFICATION_TYPE);
+        message.setCorrelationId(correlationId);
+        message.setProtocol(protocol);
+        message.setProcessingStartTime(now.toEpochMilli());
+        message.setTimestamp(now.toString());
+        return message;
+    }
+
+    public static InputPayload toDto(InputPayloadEntity entity) {
+        InputPayload payload = new InputPayload();
+        payload.setId(entity.getId());
+        payload.setContent(entity.getContent());
+        payload.setTimestamp(entity.getTimestamp() != null ? entity.getTimestamp().toString() : null);
+        payload.setProtocol(entity.getProtocol());
+        return payload;
+    }
+
+    /**
+     * Protocol-specific topic, e.g. {@code grpc-unary-payload-topic}. Cached per protocol.
+     */
+    public static String topicFor(String protocol) {
+        return TOPICS.computeIfAbsent(protocol, p -> p.toLowerCase(Locale.ROOT) + "-payload-topic");
+    }
+
+    private static Instant parseTimestamp(String timestamp, Instant now) {
+        if (timestamp == null || timestamp.isEmpty()) {
+            return now;
+        }
+        try {
+            return Instant.parse(timestamp);
+        } catch (DateTimeParseException e) {
+            logger.warn("Failed to parse timestamp '{}', using current time", timestamp);
+            return now;
+        }
+    }
+}